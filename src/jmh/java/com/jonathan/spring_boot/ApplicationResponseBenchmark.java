@@ -0,0 +1,32 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.ApplicationResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Entity to DTO conversion behind GET /api/application. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApplicationResponseBenchmark {
+
+	@Param({"1000", "10000"})
+	int applicationCount;
+
+	private List<Application> apps;
+
+	@Setup
+	public void setUp() {
+		apps = BenchmarkFixtures.applications(applicationCount, 10);
+	}
+
+	@Benchmark
+	public List<ApplicationResponse> toResponse() {
+		return apps.stream().map(ApplicationService::toResponse).toList();
+	}
+}
@@ -0,0 +1,72 @@
+package com.jonathan.spring_boot;
+
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentStatusBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/** Synthetic blueprints and the fabric8 objects the console would render for them; no cluster involved. */
+final class BenchmarkFixtures {
+
+	private BenchmarkFixtures() {
+	}
+
+	static Application application(int i, int envSize) {
+		Map<String, String> env = new LinkedHashMap<>();
+		for (int e = 0; e < envSize; e++) {
+			env.put("ENV_VAR_" + e, "value-" + e);
+		}
+		return Application.builder()
+				.id(UUID.randomUUID())
+				.name("app-" + i)
+				.image("registry.local/team/app-" + i + ":1." + (i % 10))
+				.desiredReplicas(1 + i % 3)
+				.containerPort(8080)
+				.serviceEnabled(i % 2 == 0)
+				.env(env)
+				.resources_cpu("250m")
+				.resources_ram("128Mi")
+				.createdAt(Instant.now())
+				.updatedAt(Instant.now())
+				.build();
+	}
+
+	static List<Application> applications(int count, int envSize) {
+		List<Application> apps = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			apps.add(application(i, envSize));
+		}
+		return apps;
+	}
+
+	static List<Deployment> deployments(List<Application> apps) {
+		List<Deployment> deployments = new ArrayList<>(apps.size());
+		for (Application app : apps) {
+			Deployment d = DeploymentService.buildDeployment(app);
+			d.setStatus(new DeploymentStatusBuilder()
+					.withReplicas(app.getDesiredReplicas())
+					.withReadyReplicas(app.getDesiredReplicas())
+					.withAvailableReplicas(app.getDesiredReplicas())
+					.withUpdatedReplicas(app.getDesiredReplicas())
+					.build());
+			deployments.add(d);
+		}
+		return deployments;
+	}
+
+	static List<Service> services(List<Application> apps) {
+		List<Service> services = new ArrayList<>();
+		for (Application app : apps) {
+			if (app.getServiceEnabled()) {
+				services.add(DeploymentService.buildService(app, "ClusterIP"));
+			}
+		}
+		return services;
+	}
+}
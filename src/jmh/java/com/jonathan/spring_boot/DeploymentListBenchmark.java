@@ -0,0 +1,49 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.ActiveDeploymentResponse;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** In-memory part of GET /api/deployment and /api/deployment/active once the lists are fetched. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeploymentListBenchmark {
+
+	@Param({"1000", "10000"})
+	int deploymentCount;
+
+	private List<Application> apps;
+	private List<Deployment> deployments;
+	private List<Service> services;
+
+	@Setup
+	public void setUp() {
+		apps = BenchmarkFixtures.applications(deploymentCount, 10);
+		deployments = BenchmarkFixtures.deployments(apps);
+		services = BenchmarkFixtures.services(apps);
+	}
+
+	@Benchmark
+	public List<ActiveDeploymentResponse> listDeployments() {
+		return DeploymentService.toDeploymentResponses("default", deployments, DeploymentService.serviceNames(services));
+	}
+
+	@Benchmark
+	public List<ActiveDeploymentResponse> listActiveDeploymentsWithDbInfo() {
+		Map<String, Deployment> byName = new HashMap<>(deployments.size() * 2);
+		for (Deployment d : deployments) {
+			byName.put(DeploymentService.qualifiedName(d), d);
+		}
+		return DeploymentService.joinActive("default", apps, byName);
+	}
+}
@@ -0,0 +1,63 @@
+package com.jonathan.spring_boot;
+
+import io.fabric8.kubernetes.api.model.EnvVar;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Env handling for one blueprint: request -> entity -> response -> container EnvVars.
+ * {@code legacyRoundTrip} reproduces the old Jackson 2/3 string round trips and per-call mapper
+ * so the allocation difference shows up side by side under {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvBenchmark {
+	private static final com.fasterxml.jackson.databind.ObjectMapper JACKSON2_MAPPER = new com.fasterxml.jackson.databind.ObjectMapper();
+	private static final tools.jackson.databind.ObjectMapper JACKSON3_MAPPER = new tools.jackson.databind.ObjectMapper();
+
+	@Param({"10", "200", "2000"})
+	int envSize;
+
+	private Map<String, String> envMap;
+	private JsonNode envNode;
+
+	@Setup
+	public void setUp() {
+		envMap = new LinkedHashMap<>();
+		ObjectNode node = JACKSON3_MAPPER.createObjectNode();
+		for (int i = 0; i < envSize; i++) {
+			envMap.put("ENV_VAR_" + i, "value-" + i + "-abcdefghijklmnopqrstuvwxyz");
+			node.put("ENV_VAR_" + i, "value-" + i + "-abcdefghijklmnopqrstuvwxyz");
+		}
+		envNode = node;
+	}
+
+	@Benchmark
+	public List<EnvVar> typedMap() {
+		Application app = Application.builder().name("bench").env(new LinkedHashMap<>(envMap)).build();
+		Map<String, String> responseEnv = ApplicationService.toResponse(app).getEnv();
+		return DeploymentService.getEnvVars(responseEnv);
+	}
+
+	@Benchmark
+	public List<EnvVar> legacyRoundTrip() throws Exception {
+		com.fasterxml.jackson.databind.JsonNode stored = JACKSON2_MAPPER.readTree(envNode.toString());
+		JsonNode response = JACKSON3_MAPPER.readTree(stored.toString());
+		JsonNode rendered = new tools.jackson.databind.ObjectMapper().readTree(response.toString());
+
+		List<EnvVar> vars = new ArrayList<>();
+		rendered.properties().forEach(e -> vars.add(new EnvVar(e.getKey(), e.getValue().asString(), null)));
+		return vars;
+	}
+}
@@ -0,0 +1,37 @@
+package com.jonathan.spring_boot;
+
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Rendering the Deployment (including its spec hash) and Service for one blueprint. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpecBuildBenchmark {
+
+	@Param({"0", "50"})
+	int envSize;
+
+	private Application app;
+
+	@Setup
+	public void setUp() {
+		app = BenchmarkFixtures.application(1, envSize);
+	}
+
+	@Benchmark
+	public Deployment buildDeployment() {
+		return DeploymentService.buildDeployment(app);
+	}
+
+	@Benchmark
+	public Service buildService() {
+		return DeploymentService.buildService(app, "ClusterIP");
+	}
+}
@@ -0,0 +1,102 @@
+package com.jonathan.spring_boot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket shared by every apiserver call the console makes to one cluster. Tokens refill at {@code qps} up to
+ * {@code burst}. Background callers only take a token when no interactive caller is waiting, so a
+ * deploy-all queued behind the limiter never delays a user's click by more than one refill.
+ * A non-positive {@code qps} disables limiting.
+ *
+ * <p>The bucket is kept in nanoseconds of accrued time rather than fractional tokens, so waits
+ * are exact multiples of the refill interval.
+ */
+public class ApiRateLimiter {
+	/** Time source and timed wait; tests swap in one that advances instead of sleeping. */
+	interface Ticker {
+		long nanoTime();
+
+		void awaitNanos(Condition condition, long nanos) throws InterruptedException;
+	}
+
+	static final Ticker SYSTEM = new Ticker() {
+		@Override
+		public long nanoTime() {
+			return System.nanoTime();
+		}
+
+		@Override
+		public void awaitNanos(Condition condition, long nanos) throws InterruptedException {
+			condition.awaitNanos(nanos);
+		}
+	};
+
+	private final long nanosPerPermit;
+	private final long capacityNanos;
+	private final Ticker ticker;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+
+	// Accrued refill time; every nanosPerPermit of it is one token
+	private long accruedNanos;
+	private long lastRefill;
+	private int interactiveWaiting;
+
+	public ApiRateLimiter(double qps, int burst) {
+		this(qps, burst, SYSTEM);
+	}
+
+	ApiRateLimiter(double qps, int burst, Ticker ticker) {
+		this.nanosPerPermit = qps > 0 ? Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / qps)) : 0;
+		this.capacityNanos = nanosPerPermit * Math.max(1, burst);
+		this.ticker = ticker;
+		this.accruedNanos = capacityNanos;
+		this.lastRefill = ticker.nanoTime();
+	}
+
+	public boolean isEnabled() {
+		return nanosPerPermit > 0;
+	}
+
+	/** Blocks until a token is available for the lane; returns the nanoseconds spent waiting. */
+	public long acquire(KubernetesApiCalls.Lane lane) throws InterruptedException {
+		if (!isEnabled()) {
+			return 0;
+		}
+		long started = ticker.nanoTime();
+		boolean interactive = lane == KubernetesApiCalls.Lane.INTERACTIVE;
+		lock.lock();
+		try {
+			if (interactive) interactiveWaiting++;
+			try {
+				while (true) {
+					refill();
+					boolean yielding = !interactive && interactiveWaiting > 0;
+					if (accruedNanos >= nanosPerPermit && !yielding) {
+						accruedNanos -= nanosPerPermit;
+						return ticker.nanoTime() - started;
+					}
+					if (yielding) {
+						changed.await();
+					} else {
+						ticker.awaitNanos(changed, nanosPerPermit - accruedNanos);
+					}
+				}
+			} finally {
+				if (interactive && --interactiveWaiting == 0) {
+					changed.signalAll();
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void refill() {
+		long now = ticker.nanoTime();
+		accruedNanos = Math.min(capacityNanos, accruedNanos + (now - lastRefill));
+		lastRefill = now;
+	}
+}
@@ -6,10 +6,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.type.SqlTypes;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 @Entity
@@ -28,6 +28,15 @@ public class Application {
 	@Column(nullable = false, unique = true)
 	private String name;
 
+	// Target namespace; fixed once the blueprint is created. The default backfills existing rows.
+	@Column(nullable = false, updatable = false, columnDefinition = "varchar(63) default 'default'")
+	@Builder.Default
+	private String namespace = "default";
+
+	// Target cluster from console.kubernetes; null means the default cluster. Fixed once created.
+	@Column(updatable = false, length = 63)
+	private String cluster;
+
 	@Column(nullable = false)
 	private String image;
 
@@ -39,11 +48,12 @@ public class Application {
 	@Column(nullable = false)
 	private Boolean serviceEnabled = true;
 
-	// Postgres JSONB fields
+	// Postgres JSONB fields; EnvConverter tolerates rows stored before env was a flat string map
 	@JdbcTypeCode(SqlTypes.JSON)
 	@Column(columnDefinition = "jsonb")
+	@Convert(converter = EnvConverter.class)
 	@Builder.Default
-	private JsonNode env = JsonNodeFactory.instance.objectNode();
+	private Map<String, String> env = new LinkedHashMap<>();
 
 	private String resources_cpu = "250m";
 
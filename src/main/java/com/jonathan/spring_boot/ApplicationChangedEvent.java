@@ -0,0 +1,19 @@
+package com.jonathan.spring_boot;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class ApplicationChangedEvent {
+	public enum Type {
+		CREATED,
+		UPDATED,
+		DELETED
+	}
+
+	private final UUID applicationId;
+	private final Type type;
+}
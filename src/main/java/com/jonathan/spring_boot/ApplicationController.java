@@ -2,13 +2,22 @@ package com.jonathan.spring_boot;
 
 import com.jonathan.spring_boot.req_res.ApplicationCreateRequest;
 import com.jonathan.spring_boot.req_res.ApplicationResponse;
+import com.jonathan.spring_boot.req_res.ImportResponse;
 import jakarta.websocket.server.PathParam;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/application")
@@ -16,10 +25,29 @@ import java.util.UUID;
 public class ApplicationController {
 
 	private final ApplicationService applicationService;
+	private final ApplicationImporter applicationImporter;
+	private final ApplicationExporter applicationExporter;
+	private final ConsoleProperties properties;
 
+	/**
+	 * Every blueprint, or with {@code limit}, {@code cursor}, {@code name} or {@code image} a keyset
+	 * page ordered by name with the next page's cursor in {@value ListQuery#NEXT_CURSOR_HEADER}.
+	 * Tagged with an ETag; a matching If-None-Match gets 304 without the list being serialised.
+	 */
 	@GetMapping
-	public List<ApplicationResponse> getApplications() {
-		return applicationService.list();
+	public ResponseEntity<List<ApplicationResponse>> getApplications(
+			@RequestParam(required = false) Integer limit,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) String name,
+			@RequestParam(required = false) String image,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+	) {
+		ListQuery query = ListQuery.of(limit, cursor, name, image, properties.getPagination());
+		if (!query.paged()) {
+			List<ApplicationResponse> apps = applicationService.list();
+			return conditional(query.etag(ApplicationService.versionOf(apps)), ifNoneMatch, () -> new KeysetPage<>(apps, null));
+		}
+		return conditional(query.etag(applicationService.version()), ifNoneMatch, () -> applicationService.page(query));
 	}
 
 	@PostMapping
@@ -30,6 +58,36 @@ public class ApplicationController {
 		return ResponseEntity.ok(applicationService.createApplication(request));
 	}
 
+	/**
+	 * Bulk create from NDJSON, a JSON array or multi-document YAML, parsed as a stream. Existing
+	 * names are reported as conflicts and skipped; everything else is inserted in JDBC batches.
+	 */
+	@PostMapping(path = "/import", consumes = {
+			"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE, "application/yaml", "application/x-yaml", "text/yaml"
+	})
+	public ImportResponse importApplications(
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+			InputStream body
+	) {
+		return applicationImporter.importApplications(body, contentType.contains("yaml"));
+	}
+
+	/**
+	 * Streams every blueprint as NDJSON, or as the Deployment/Service manifests a deploy would
+	 * apply when {@code format=yaml}.
+	 */
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportApplications(
+			@RequestParam(defaultValue = "ndjson") String format
+	) {
+		ApplicationExporter.Format exportFormat = ApplicationExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+		boolean yaml = exportFormat == ApplicationExporter.Format.YAML;
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(yaml ? "application/yaml" : "application/x-ndjson"))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + (yaml ? "manifests.yaml" : "blueprints.ndjson") + "\"")
+				.body(out -> applicationExporter.export(exportFormat, out));
+	}
+
 	@PostMapping("/update/{applicationId}")
 	public ApplicationResponse updateApplication(@PathVariable UUID applicationId, @RequestBody ApplicationCreateRequest request) {
 		return applicationService.updateApplication(applicationId, request);
@@ -41,4 +99,19 @@ public class ApplicationController {
 		return ResponseEntity.ok("Deleted application with Id: " + applicationId);
 	}
 
+	// no-cache: browsers revalidate every poll, which is what turns an unchanged list into a 304
+	static <T> ResponseEntity<List<T>> conditional(String etag, String ifNoneMatch, Supplier<KeysetPage<T>> page) {
+		if (ListQuery.notModified(ifNoneMatch, etag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+		}
+		KeysetPage<T> result = page.get();
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+		if (etag != null) {
+			response.eTag(etag);
+		}
+		if (result.nextCursor() != null) {
+			response.header(ListQuery.NEXT_CURSOR_HEADER, result.nextCursor());
+		}
+		return response.body(result.items());
+	}
 }
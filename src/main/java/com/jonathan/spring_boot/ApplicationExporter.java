@@ -0,0 +1,78 @@
+package com.jonathan.spring_boot;
+
+import io.fabric8.kubernetes.client.utils.Serialization;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams every blueprint out page by page, walking the unique name index with a keyset cursor.
+ * Only one page is held at a time and each page is flushed before the next is read, so heap use
+ * stays flat and the first rows reach the client right away, whatever the inventory size.
+ */
+@Service
+@RequiredArgsConstructor
+public class ApplicationExporter {
+	public enum Format {
+		NDJSON,
+		YAML
+	}
+
+	private final ApplicationRepository applicationRepository;
+	private final JsonMapper jsonMapper;
+	private final ConsoleProperties properties;
+
+	/**
+	 * NDJSON writes one {@code ApplicationResponse} per line; YAML writes the Deployment and, for
+	 * service-enabled blueprints, the ClusterIP Service that a deploy would create.
+	 */
+	public void export(Format format, OutputStream out) throws IOException {
+		Limit page = Limit.of(Math.max(1, properties.getExport().getPageSize()));
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		String cursor = "";
+		long count = 0;
+		long started = System.nanoTime();
+		while (true) {
+			List<Application> apps = applicationRepository.findByNameGreaterThanOrderByNameAsc(cursor, page);
+			for (Application app : apps) {
+				if (format == Format.YAML) {
+					writeManifests(writer, app);
+				} else {
+					writer.write(jsonMapper.writeValueAsString(ApplicationService.toResponse(app)));
+					writer.write('\n');
+				}
+			}
+			writer.flush();
+			count += apps.size();
+			if (apps.size() < page.max()) break;
+			cursor = apps.get(apps.size() - 1).getName();
+		}
+		System.out.println("Exported " + count + " applications as " + format + " in "
+				+ (System.nanoTime() - started) / 1_000_000 + " ms");
+	}
+
+	private static void writeManifests(Writer writer, Application app) throws IOException {
+		String rendered;
+		try {
+			// asYaml starts every document with its own "---" separator
+			rendered = Serialization.asYaml(DeploymentService.buildDeployment(app));
+			if (Boolean.TRUE.equals(app.getServiceEnabled())) {
+				rendered += Serialization.asYaml(DeploymentService.buildService(app, "ClusterIP"));
+			}
+		} catch (RuntimeException e) {
+			// A blueprint that cannot be rendered (e.g. a bad quantity) would not deploy either
+			writer.write("# skipped " + app.getName() + ": " + e.getMessage() + "\n");
+			return;
+		}
+		writer.write(rendered);
+	}
+}
@@ -0,0 +1,287 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.ApplicationCreateRequest;
+import com.jonathan.spring_boot.req_res.ImportError;
+import com.jonathan.spring_boot.req_res.ImportResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk blueprint import. The upload is parsed as a stream and handled in chunks of
+ * {@code console.bulk-import.chunk-size}: one query finds the chunk's names that already exist,
+ * and the rest go in as one JDBC batch in the chunk's own transaction. Memory stays at one chunk
+ * however large the upload; a chunk that commits stays imported even if a later row is unreadable.
+ */
+@Service
+@RequiredArgsConstructor
+public class ApplicationImporter {
+	private static final String INSERT = "insert into applications (id, name, namespace, cluster, image, desired_replicas,"
+			+ " container_port, service_enabled, env, resources_cpu, resources_ram, created_at, updated_at)"
+			+ " values (?, ?, ?, ?, ?, ?, ?, ?, %s, ?, ?, ?, ?)";
+
+	private final ApplicationService applicationService;
+	private final JdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final JsonMapper jsonMapper;
+	private final ConsoleProperties properties;
+	private final BlueprintCache blueprintCache;
+
+	private volatile String insertSql;
+
+	/**
+	 * Imports NDJSON, a JSON array or concatenated JSON objects, or multi-document YAML when
+	 * {@code yaml} is set. A YAML document may also hold a list of blueprints.
+	 */
+	public ImportResponse importApplications(InputStream body, boolean yaml) {
+		long started = System.nanoTime();
+		int chunkSize = Math.max(1, properties.getBulkImport().getChunkSize());
+		Result result = new Result(properties.getBulkImport().getMaxErrors());
+
+		List<Row> chunk = new ArrayList<>(chunkSize);
+		long index = 0;
+		try {
+			Iterator<ApplicationCreateRequest> rows = yaml ? yamlRows(body) : jsonRows(body);
+			while (rows.hasNext()) {
+				chunk.add(new Row(index++, rows.next()));
+				if (chunk.size() == chunkSize) {
+					writeChunk(chunk, result);
+					chunk.clear();
+				}
+			}
+		} catch (RuntimeException e) {
+			// The stream cannot be resynchronised after a syntax error; keep what was read before it
+			result.fail(index, null, "Unreadable input, import stopped: " + e.getMessage());
+		}
+		writeChunk(chunk, result);
+		if (result.imported > 0) {
+			// New rows only change the list, but here and on every other replica
+			blueprintCache.evictAll();
+		}
+
+		System.out.println("Imported " + result.imported + " applications (" + result.conflicts + " conflicts, "
+				+ result.failed + " failed) in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+		return result.toResponse();
+	}
+
+	private void writeChunk(List<Row> chunk, Result result) {
+		if (chunk.isEmpty()) return;
+
+		List<Row> valid = new ArrayList<>(chunk.size());
+		Set<String> names = new HashSet<>();
+		for (Row row : chunk) {
+			ApplicationCreateRequest request = row.request;
+			String name = request != null ? request.getName() : null;
+			if (name == null || name.isBlank()) {
+				result.fail(row.index, name, "Application name must be provided");
+			} else if (request.getImage() == null || request.getImage().isBlank()) {
+				result.fail(row.index, name, "Application image must be provided");
+			} else if (!names.add(name)) {
+				result.conflict(row.index, name, "Duplicate name in upload");
+			} else {
+				try {
+					row.application = applicationService.newApplication(request);
+					valid.add(row);
+				} catch (IllegalArgumentException e) {
+					names.remove(name);
+					result.fail(row.index, name, e.getMessage());
+				}
+			}
+		}
+		if (valid.isEmpty()) return;
+
+		try {
+			Set<String> existing = transactionTemplate.execute(status -> {
+				Set<String> taken = existingNames(names);
+				insert(valid.stream()
+						.map(row -> row.application)
+						.filter(app -> !taken.contains(app.getName()))
+						.toList());
+				return taken;
+			});
+			for (Row row : valid) {
+				if (existing.contains(row.application.getName())) {
+					result.conflict(row.index, row.application.getName(), "Application already exists");
+				} else {
+					result.imported++;
+				}
+			}
+		} catch (DataIntegrityViolationException e) {
+			// A concurrent create took one of the names between the check and the insert
+			for (Row row : valid) {
+				result.fail(row.index, row.application.getName(), "Chunk rolled back: " + e.getMostSpecificCause().getMessage());
+			}
+		}
+	}
+
+	private Set<String> existingNames(Set<String> names) {
+		return new HashSet<>(namedJdbcTemplate.queryForList(
+				"select name from applications where name in (:names)", Map.of("names", names), String.class));
+	}
+
+	private void insert(List<Application> apps) {
+		if (apps.isEmpty()) return;
+		Timestamp now = Timestamp.from(Instant.now());
+		jdbcTemplate.batchUpdate(insertSql(), apps, apps.size(), (ps, app) -> {
+			ps.setObject(1, UUID.randomUUID());
+			ps.setString(2, app.getName());
+			ps.setString(3, app.getNamespace());
+			ps.setString(4, app.getCluster());
+			ps.setString(5, app.getImage());
+			ps.setInt(6, app.getDesiredReplicas());
+			ps.setInt(7, app.getContainerPort());
+			ps.setBoolean(8, app.getServiceEnabled());
+			ps.setString(9, jsonMapper.writeValueAsString(app.getEnv()));
+			ps.setString(10, app.getResources_cpu());
+			ps.setString(11, app.getResources_ram());
+			ps.setTimestamp(12, now);
+			ps.setTimestamp(13, now);
+		});
+	}
+
+	// jsonb takes a cast on Postgres; H2 (the load-test database) needs the JSON literal marked instead
+	private String insertSql() {
+		if (insertSql == null) {
+			String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+			insertSql = String.format(INSERT, "H2".equals(product) ? "? format json" : "cast(? as jsonb)");
+		}
+		return insertSql;
+	}
+
+	// NDJSON and concatenated objects are a sequence of root values; a leading '[' means one array
+	private Iterator<ApplicationCreateRequest> jsonRows(InputStream body) {
+		// Rows are read one at a time off a shared parser, so what follows a row is not an error
+		ObjectReader reader = jsonMapper.readerFor(ApplicationCreateRequest.class)
+				.without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+		JsonParser parser = jsonMapper.createParser(body);
+		JsonToken first = parser.nextToken();
+		boolean array = first == JsonToken.START_ARRAY;
+		return new Iterator<>() {
+			private JsonToken next = array ? parser.nextToken() : first;
+
+			@Override
+			public boolean hasNext() {
+				return next != null && next != JsonToken.END_ARRAY;
+			}
+
+			@Override
+			public ApplicationCreateRequest next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				ApplicationCreateRequest row = next == JsonToken.VALUE_NULL
+						? null
+						: reader.<ApplicationCreateRequest>readValue(parser);
+				next = parser.nextToken();
+				return row;
+			}
+		};
+	}
+
+	// loadAll parses one document per step; a document holding a list is loaded whole, so large
+	// uploads should use one document per blueprint. Empty documents are skipped.
+	private Iterator<ApplicationCreateRequest> yamlRows(InputStream body) {
+		Yaml yaml = new Yaml(new SafeConstructor(new LoaderOptions()));
+		Iterator<Object> documents = yaml.loadAll(new InputStreamReader(body, StandardCharsets.UTF_8)).iterator();
+		return new Iterator<>() {
+			private Iterator<?> list = Collections.emptyIterator();
+			private Object pending;
+
+			@Override
+			public boolean hasNext() {
+				while (pending == null) {
+					if (list.hasNext()) {
+						pending = list.next();
+					} else if (documents.hasNext()) {
+						Object document = documents.next();
+						if (document instanceof List<?> items) {
+							list = items.iterator();
+						} else {
+							pending = document;
+						}
+					} else {
+						return false;
+					}
+				}
+				return true;
+			}
+
+			@Override
+			public ApplicationCreateRequest next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				Object item = pending;
+				pending = null;
+				return jsonMapper.convertValue(item, ApplicationCreateRequest.class);
+			}
+		};
+	}
+
+	private static final class Row {
+		private final long index;
+		private final ApplicationCreateRequest request;
+		private Application application;
+
+		private Row(long index, ApplicationCreateRequest request) {
+			this.index = index;
+			this.request = request;
+		}
+	}
+
+	private static final class Result {
+		private final int maxErrors;
+		private final List<ImportError> errors = new ArrayList<>();
+		private int imported;
+		private int conflicts;
+		private int failed;
+
+		private Result(int maxErrors) {
+			this.maxErrors = maxErrors;
+		}
+
+		private void fail(long index, String name, String message) {
+			failed++;
+			record(index, name, message);
+		}
+
+		private void conflict(long index, String name, String message) {
+			conflicts++;
+			record(index, name, message);
+		}
+
+		private void record(long index, String name, String message) {
+			if (errors.size() < maxErrors) {
+				errors.add(new ImportError(index, name, message));
+			}
+		}
+
+		private ImportResponse toResponse() {
+			return new ImportResponse(imported, conflicts, failed, errors);
+		}
+	}
+}
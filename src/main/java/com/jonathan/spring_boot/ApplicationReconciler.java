@@ -0,0 +1,100 @@
+package com.jonathan.spring_boot;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background loop that keeps deployed applications converged to their blueprints. Keys are
+ * application IDs; they are queued when a blueprint changes and, on each resync, for every row
+ * this replica owns according to {@link ReplicaCoordinator}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationReconciler {
+	private final DeploymentService deploymentService;
+	private final ApplicationRepository applicationRepository;
+	private final ConsoleProperties properties;
+	private final ReplicaCoordinator coordinator;
+
+	private RateLimitedWorkQueue<UUID> queue;
+	private ExecutorService workers;
+	private ScheduledExecutorService resync;
+
+	@PostConstruct
+	public void start() {
+		ConsoleProperties.Reconcile config = properties.getReconcile();
+		if (!config.isEnabled()) {
+			return;
+		}
+		queue = new RateLimitedWorkQueue<>(config.getPermitsPerSecond(), config.getBaseDelay(), config.getMaxDelay());
+
+		int workerCount = Math.max(1, config.getWorkers());
+		workers = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("reconcile-"));
+		for (int i = 0; i < workerCount; i++) {
+			workers.execute(this::work);
+		}
+
+		long period = config.getResyncPeriod().toMillis();
+		resync = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("reconcile-resync-"));
+		resync.scheduleWithFixedDelay(this::enqueueAll, period, period, TimeUnit.MILLISECONDS);
+		// Picks up the slice of a replica that went away without waiting for the next resync
+		coordinator.onOwnershipChange(() -> resync.execute(this::enqueueAll));
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (resync != null) resync.shutdownNow();
+		if (workers != null) workers.shutdownNow();
+	}
+
+	// Only the replica that served the write sees the event, so it reconciles whoever owns the row
+	@EventListener
+	public void onApplicationChanged(ApplicationChangedEvent event) {
+		if (queue != null && event.getType() != ApplicationChangedEvent.Type.DELETED) {
+			queue.add(event.getApplicationId());
+		}
+	}
+
+	public void enqueueAll() {
+		if (queue == null) return;
+		try {
+			applicationRepository.findAll().stream()
+					.map(Application::getId)
+					.filter(coordinator::owns)
+					.forEach(queue::add);
+		} catch (Exception e) {
+			System.out.println("Reconcile resync failed: " + e.getMessage());
+		}
+	}
+
+	private void work() {
+		while (!Thread.currentThread().isInterrupted()) {
+			UUID id;
+			try {
+				id = queue.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			try {
+				KubernetesApiCalls.inBackground(() -> deploymentService.reconcile(id));
+				queue.done(id);
+				queue.forget(id);
+			} catch (Exception e) {
+				System.out.println("Reconcile failed for application " + id + ": " + e.getMessage());
+				queue.done(id);
+				queue.retry(id);
+			}
+		}
+	}
+}
@@ -1,7 +1,10 @@
 package com.jonathan.spring_boot;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -9,4 +12,19 @@ public interface ApplicationRepository extends JpaRepository<Application, UUID>
 	Optional<Application> findByName(String name);
 
 	boolean existsByName(String name);
+
+	// Keyset page: names are unique, so the last name of one page is the cursor for the next
+	List<Application> findByNameGreaterThanOrderByNameAsc(String name, Limit limit);
+
+	// Keyset page with prefix filters; the patterns come from ListQuery.likePrefix
+	@Query("select a from Application a where a.name > :after"
+			+ " and a.name like :namePattern escape '\\' and a.image like :imagePattern escape '\\'"
+			+ " order by a.name")
+	List<Application> findPage(String after, String namePattern, String imagePattern, Limit limit);
+
+	@Query("select new com.jonathan.spring_boot.ApplicationsVersion(count(a), max(a.updatedAt)) from Application a")
+	ApplicationsVersion findVersion();
+
+	@Query("select distinct new com.jonathan.spring_boot.ClusterNamespace(a.cluster, a.namespace) from Application a")
+	List<ClusterNamespace> findDistinctClusterNamespaces();
 }
@@ -1,67 +1,118 @@
 package com.jonathan.spring_boot;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.jonathan.spring_boot.req_res.ApplicationCreateRequest;
 import com.jonathan.spring_boot.req_res.ApplicationResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 public class ApplicationService {
-	private static final ObjectMapper JACKSON2_MAPPER = new ObjectMapper();
-	private static final tools.jackson.databind.ObjectMapper JACKSON3_MAPPER = new tools.jackson.databind.ObjectMapper();
+	// RFC 1123 label, the format Kubernetes requires for namespace names
+	private static final Pattern NAMESPACE_PATTERN = Pattern.compile("[a-z0-9]([-a-z0-9]{0,61}[a-z0-9])?");
 
 	private final ApplicationRepository applicationRepository;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ClusterRegistry clusters;
+	private final BlueprintCache blueprintCache;
 
 	public ApplicationResponse createApplication(ApplicationCreateRequest applicationCreateRequest) {
 		if (applicationRepository.existsByName(applicationCreateRequest.getName())) {
 			throw new RuntimeException("Application with name " + applicationCreateRequest.getName() + " already exists");
 		}
 
-		Application application = Application.builder()
+		Application saved = applicationRepository.save(newApplication(applicationCreateRequest));
+		blueprintCache.evict(saved.getId());
+		eventPublisher.publishEvent(new ApplicationChangedEvent(saved.getId(), ApplicationChangedEvent.Type.CREATED));
+		return toResponse(saved);
+	}
+
+	// Applies defaults and validates namespace and cluster; shared with the bulk importer
+	Application newApplication(ApplicationCreateRequest applicationCreateRequest) {
+		return Application.builder()
 				.name(applicationCreateRequest.getName())
+				.namespace(namespaceOrDefault(applicationCreateRequest.getNamespace()))
+				.cluster(clusterOrDefault(applicationCreateRequest.getCluster()))
 				.image(applicationCreateRequest.getImage())
 				.desiredReplicas(applicationCreateRequest.getDesiredReplicas() != null ? applicationCreateRequest.getDesiredReplicas() : 1)
 				.containerPort(applicationCreateRequest.getContainerPort() != null ? applicationCreateRequest.getContainerPort() : 80)
 				.serviceEnabled(applicationCreateRequest.getServiceEnabled() != null ? applicationCreateRequest.getServiceEnabled() : false)
-				.env(toJackson2(applicationCreateRequest.getEnv()))
+				.env(copyEnv(applicationCreateRequest.getEnv()))
 				.resources_cpu(applicationCreateRequest.getResources_cpu())
 				.resources_ram(applicationCreateRequest.getResources_ram())
 				.build();
-
-		Application saved = applicationRepository.save(application);
-		return toResponse(saved);
 	}
 
 	public ApplicationResponse updateApplication(UUID id, ApplicationCreateRequest applicationCreateRequest) {
+		// A fresh copy: cached blueprints are shared and must not be modified
 		Application existingApp = applicationRepository.findById(id)
 				.orElseThrow(() -> new RuntimeException("Application not found: " + id));
+		if (applicationCreateRequest.getNamespace() != null
+				&& !applicationCreateRequest.getNamespace().equals(existingApp.getNamespace())) {
+			throw new IllegalArgumentException("Namespace of application " + existingApp.getName()
+					+ " cannot be changed; delete it and create it in the new namespace");
+		}
+		if (applicationCreateRequest.getCluster() != null
+				&& !applicationCreateRequest.getCluster().equals(clusterOrDefault(existingApp.getCluster()))) {
+			throw new IllegalArgumentException("Cluster of application " + existingApp.getName()
+					+ " cannot be changed; delete it and create it on the new cluster");
+		}
 
 		existingApp.setName(applicationCreateRequest.getName());
 		existingApp.setImage(applicationCreateRequest.getImage());
 		existingApp.setDesiredReplicas(applicationCreateRequest.getDesiredReplicas() != null ? applicationCreateRequest.getDesiredReplicas() : existingApp.getDesiredReplicas());
 		existingApp.setContainerPort(applicationCreateRequest.getContainerPort() != null ? applicationCreateRequest.getContainerPort() : existingApp.getContainerPort());
 		existingApp.setServiceEnabled(applicationCreateRequest.getServiceEnabled() != null ? applicationCreateRequest.getServiceEnabled() : existingApp.getServiceEnabled());
-		existingApp.setEnv(toJackson2(applicationCreateRequest.getEnv()));
+		existingApp.setEnv(copyEnv(applicationCreateRequest.getEnv()));
 		existingApp.setResources_cpu(applicationCreateRequest.getResources_cpu());
 		existingApp.setResources_ram(applicationCreateRequest.getResources_ram());
 
 		Application updated = applicationRepository.save(existingApp);
+		blueprintCache.evict(id);
+		eventPublisher.publishEvent(new ApplicationChangedEvent(updated.getId(), ApplicationChangedEvent.Type.UPDATED));
 		return toResponse(updated);
 	}
 
 	public List<ApplicationResponse> list() {
-		return applicationRepository.findAll().stream().map(this::toResponse).toList();
+		return blueprintCache.findAll().stream().map(ApplicationService::toResponse).toList();
+	}
+
+	/** A keyset page of blueprints ordered by name, filtered by name and image prefix. */
+	public KeysetPage<ApplicationResponse> page(ListQuery query) {
+		List<Application> rows = applicationRepository.findPage(query.after(),
+				ListQuery.likePrefix(query.namePrefix()), ListQuery.likePrefix(query.imagePrefix()), Limit.of(query.limit() + 1));
+		KeysetPage<Application> page = query.trim(rows, Application::getName);
+		return new KeysetPage<>(page.items().stream().map(ApplicationService::toResponse).toList(), page.nextCursor());
+	}
+
+	// Read before the page itself, so a page is never older than the version it is tagged with
+	public String version() {
+		return applicationRepository.findVersion().toString();
+	}
+
+	// The same version, taken from a full list so list and tag always agree
+	static String versionOf(List<ApplicationResponse> apps) {
+		Instant lastUpdated = apps.stream()
+				.map(ApplicationResponse::getUpdatedAt)
+				.filter(Objects::nonNull)
+				.max(Comparator.naturalOrder())
+				.orElse(null);
+		return new ApplicationsVersion(apps.size(), lastUpdated).toString();
 	}
 
 	public ApplicationResponse get(UUID id) {
-		Application app = applicationRepository.findById(id)
+		Application app = blueprintCache.findById(id)
 				.orElseThrow(() -> new RuntimeException("Application not found: " + id));
 		return toResponse(app);
 	}
@@ -75,17 +126,21 @@ public class ApplicationService {
 			throw new RuntimeException("Application not found: " + id);
 		}
 		applicationRepository.deleteById(id);
+		blueprintCache.evict(id);
+		eventPublisher.publishEvent(new ApplicationChangedEvent(id, ApplicationChangedEvent.Type.DELETED));
 	}
 
-	private ApplicationResponse toResponse(Application saved) {
+	static ApplicationResponse toResponse(Application saved) {
 		return ApplicationResponse.builder()
 				.id(saved.getId())
 				.name(saved.getName())
+				.namespace(saved.getNamespace())
+				.cluster(saved.getCluster())
 				.image(saved.getImage())
 				.desiredReplicas(saved.getDesiredReplicas())
 				.containerPort(saved.getContainerPort())
 				.serviceEnabled(saved.getServiceEnabled())
-				.env(toJackson3(saved.getEnv()))
+				.env(saved.getEnv())
 				.resources_cpu(saved.getResources_cpu())
 				.resources_ram(saved.getResources_ram())
 				.createdAt(saved.getCreatedAt())
@@ -93,26 +148,28 @@ public class ApplicationService {
 				.build();
 	}
 
-	private static JsonNode toJackson2(tools.jackson.databind.JsonNode env) {
-		if (env == null || env.isNull() || env.isMissingNode()) {
-			return JsonNodeFactory.instance.objectNode();
+	private static String namespaceOrDefault(String namespace) {
+		if (namespace == null || namespace.isBlank()) {
+			return "default";
 		}
-		try {
-			return JACKSON2_MAPPER.readTree(env.toString());
-		} catch (Exception e) {
-			return JsonNodeFactory.instance.objectNode();
+		if (!NAMESPACE_PATTERN.matcher(namespace).matches()) {
+			throw new IllegalArgumentException("Invalid namespace: " + namespace);
 		}
+		return namespace;
 	}
 
-	private static tools.jackson.databind.JsonNode toJackson3(JsonNode env) {
-		if (env == null || env.isNull() || env.isMissingNode()) {
-			return tools.jackson.databind.node.JsonNodeFactory.instance.objectNode();
+	private String clusterOrDefault(String cluster) {
+		if (cluster == null || cluster.isBlank()) {
+			return clusters.defaultCluster();
 		}
-		try {
-			return JACKSON3_MAPPER.readTree(env.toString());
-		} catch (Exception e) {
-			return tools.jackson.databind.node.JsonNodeFactory.instance.objectNode();
+		if (!clusters.contains(cluster)) {
+			throw new IllegalArgumentException("Unknown cluster: " + cluster);
 		}
+		return cluster;
+	}
+
+	private static Map<String, String> copyEnv(Map<String, String> env) {
+		return env != null ? new LinkedHashMap<>(env) : new LinkedHashMap<>();
 	}
 
 }
@@ -0,0 +1,14 @@
+package com.jonathan.spring_boot;
+
+import java.time.Instant;
+
+/**
+ * Row count and latest {@code updatedAt} of the applications table. Creates and updates move the
+ * timestamp and deletes move the count, so together they change on every write.
+ */
+public record ApplicationsVersion(long count, Instant lastUpdated) {
+	@Override
+	public String toString() {
+		return count + "@" + lastUpdated;
+	}
+}
@@ -0,0 +1,218 @@
+package com.jonathan.spring_boot;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cache of application blueprints, bounded by {@code console.blueprints.maximum-size}
+ * and expired after {@code ttl}. Writes through {@link ApplicationService} evict the entry here and
+ * send a Postgres NOTIFY on {@value #CHANNEL}; every other replica LISTENs on one dedicated
+ * connection and evicts the same entry. A notification missed while that connection is down is
+ * covered by clearing the cache on reconnect, and by the TTL in the worst case. NOTIFY only reaches
+ * sessions on the same database, so replicas must share one Postgres; with a database per pod each
+ * replica's cache is local only and serves stale blueprints for up to the TTL. On any other
+ * database (H2 in the load tests) the cache is local only.
+ *
+ * <p>Cached {@link Application}s are shared between callers and must not be modified; update
+ * paths load their own copy from the repository.
+ */
+@Component
+public class BlueprintCache {
+	static final String CHANNEL = "console_blueprints";
+	private static final String ALL = "*";
+	private static final long POLL_MILLIS = 10_000;
+	private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+	private final ApplicationRepository applicationRepository;
+	private final JdbcTemplate jdbcTemplate;
+	private final ConsoleProperties.Blueprints config;
+	private final Cache<UUID, Application> byId;
+	private final Cache<String, List<Application>> list;
+	private final Counter localInvalidations;
+	private final Counter remoteInvalidations;
+	// Tells this replica's own notifications apart from those of its peers
+	private final String instanceId = UUID.randomUUID().toString();
+
+	private volatile Boolean postgres;
+	private ExecutorService listener;
+
+	public BlueprintCache(ApplicationRepository applicationRepository, JdbcTemplate jdbcTemplate,
+			ConsoleProperties properties, MeterRegistry meterRegistry) {
+		this.applicationRepository = applicationRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.config = properties.getBlueprints();
+		this.byId = Caffeine.newBuilder()
+				.maximumSize(config.getMaximumSize())
+				.expireAfterWrite(config.getTtl())
+				.recordStats()
+				.build();
+		this.list = Caffeine.newBuilder()
+				.maximumSize(1)
+				.expireAfterWrite(config.getTtl())
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, byId, "blueprints");
+		CaffeineCacheMetrics.monitor(meterRegistry, list, "blueprint-list");
+		this.localInvalidations = Counter.builder("console.blueprints.invalidations")
+				.description("Blueprint cache invalidations, by where the write happened")
+				.tag("source", "local")
+				.register(meterRegistry);
+		this.remoteInvalidations = Counter.builder("console.blueprints.invalidations")
+				.description("Blueprint cache invalidations, by where the write happened")
+				.tag("source", "remote")
+				.register(meterRegistry);
+	}
+
+	@PostConstruct
+	public void start() {
+		if (!config.isCacheEnabled()) {
+			return;
+		}
+		listener = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("blueprint-listen-"));
+		listener.execute(this::listen);
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (listener != null) listener.shutdownNow();
+	}
+
+	public Optional<Application> findById(UUID id) {
+		if (!config.isCacheEnabled()) {
+			return applicationRepository.findById(id);
+		}
+		// Unknown ids are not cached, so a blueprint created on another replica shows up at once
+		return Optional.ofNullable(byId.get(id, key -> applicationRepository.findById(key).orElse(null)));
+	}
+
+	public List<Application> findAll() {
+		if (!config.isCacheEnabled()) {
+			return applicationRepository.findAll();
+		}
+		return list.get(ALL, key -> List.copyOf(applicationRepository.findAll()));
+	}
+
+	/** Drops the blueprint here and on every other replica; call after the write has committed. */
+	public void evict(UUID id) {
+		invalidate(id);
+		localInvalidations.increment();
+		notifyPeers(id.toString());
+	}
+
+	/** Drops every blueprint here and on every other replica, e.g. after a bulk import. */
+	public void evictAll() {
+		invalidate(null);
+		localInvalidations.increment();
+		notifyPeers(ALL);
+	}
+
+	// An invalidate racing a load waits for it and then removes what it loaded
+	private void invalidate(UUID id) {
+		if (id == null) {
+			byId.invalidateAll();
+		} else {
+			byId.invalidate(id);
+		}
+		list.invalidateAll();
+	}
+
+	private void notifyPeers(String target) {
+		if (!config.isCacheEnabled() || !isPostgres()) {
+			return;
+		}
+		try {
+			// NOTIFY takes no bind parameters; pg_notify does
+			jdbcTemplate.queryForList("select pg_notify(?, ?)", CHANNEL, instanceId + ":" + target);
+		} catch (RuntimeException e) {
+			// Peers fall back on the TTL for this entry
+			System.out.println("Blueprint invalidation for " + target + " not sent: " + e.getMessage());
+		}
+	}
+
+	private boolean isPostgres() {
+		if (postgres == null) {
+			postgres = Boolean.TRUE.equals(jdbcTemplate.execute(
+					(ConnectionCallback<Boolean>) c -> c.isWrapperFor(PGConnection.class)));
+		}
+		return postgres;
+	}
+
+	private void listen() {
+		DataSource dataSource = jdbcTemplate.getDataSource();
+		long backoff = 1_000;
+		while (!Thread.currentThread().isInterrupted()) {
+			// Holds one pooled connection for as long as the console runs
+			try (Connection connection = dataSource.getConnection()) {
+				if (!connection.isWrapperFor(PGConnection.class)) {
+					postgres = false;
+					System.out.println("Blueprint cache is local only: database is not PostgreSQL");
+					return;
+				}
+				postgres = true;
+				PGConnection pg = connection.unwrap(PGConnection.class);
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("LISTEN " + CHANNEL);
+				}
+				// Whatever was sent while this replica was not listening is lost
+				invalidate(null);
+				backoff = 1_000;
+				while (!Thread.currentThread().isInterrupted()) {
+					PGNotification[] notifications = pg.getNotifications((int) POLL_MILLIS);
+					if (notifications != null) {
+						for (PGNotification notification : notifications) {
+							onNotification(notification.getParameter());
+						}
+					}
+				}
+			} catch (SQLException | RuntimeException e) {
+				if (Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				System.out.println("Blueprint cache listener disconnected, retrying in " + backoff + " ms: " + e.getMessage());
+				try {
+					TimeUnit.MILLISECONDS.sleep(backoff);
+				} catch (InterruptedException interrupted) {
+					return;
+				}
+				backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+			}
+		}
+	}
+
+	// Payload is "<instance>:<application id>" or "<instance>:*"
+	void onNotification(String payload) {
+		int separator = payload != null ? payload.indexOf(':') : -1;
+		if (separator < 0 || payload.substring(0, separator).equals(instanceId)) {
+			return;
+		}
+		String target = payload.substring(separator + 1);
+		try {
+			invalidate(ALL.equals(target) ? null : UUID.fromString(target));
+			remoteInvalidations.increment();
+		} catch (IllegalArgumentException e) {
+			System.out.println("Ignoring blueprint invalidation with payload " + payload);
+		}
+	}
+}
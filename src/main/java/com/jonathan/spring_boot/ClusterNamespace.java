@@ -0,0 +1,5 @@
+package com.jonathan.spring_boot;
+
+/** A (cluster, namespace) pair some blueprint targets; {@code cluster} is null for the default cluster. */
+public record ClusterNamespace(String cluster, String namespace) {
+}
@@ -0,0 +1,131 @@
+package com.jonathan.spring_boot;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The clusters the console manages, each with its own client and informer cache. Blueprints name
+ * their cluster; reads that span clusters go through {@link #fanOut}, which queries every cluster
+ * in parallel and leaves out any that fail or exceed their timeout.
+ */
+public class ClusterRegistry {
+
+	/**
+	 * One managed cluster. Each has its own {@code limiter}, so a burst against one apiserver does not
+	 * use up another's budget. {@code owned} clients were built by the console and are closed with it.
+	 */
+	public record Cluster(String name, KubernetesClient client, DeploymentCache cache, ApiRateLimiter limiter,
+			Duration timeout, boolean owned) {
+	}
+
+	/** Merged rows from the clusters that answered, plus the reason for each cluster that did not. */
+	public record FanOut<T>(List<T> items, Map<String, String> failures) {
+	}
+
+	private final String defaultCluster;
+	private final Map<String, Cluster> clusters = new LinkedHashMap<>();
+	private final ExecutorService executor;
+
+	public ClusterRegistry(String defaultCluster, List<Cluster> clusters, ExecutorService executor) {
+		this.defaultCluster = defaultCluster;
+		this.executor = executor;
+		for (Cluster cluster : clusters) {
+			if (this.clusters.putIfAbsent(cluster.name(), cluster) != null) {
+				throw new IllegalArgumentException("Duplicate cluster name: " + cluster.name());
+			}
+		}
+		if (!this.clusters.containsKey(defaultCluster)) {
+			throw new IllegalArgumentException("Default cluster " + defaultCluster + " is not configured");
+		}
+	}
+
+	public String defaultCluster() {
+		return defaultCluster;
+	}
+
+	public boolean contains(String name) {
+		return clusters.containsKey(name);
+	}
+
+	public Set<String> names() {
+		return clusters.keySet();
+	}
+
+	public Collection<Cluster> all() {
+		return clusters.values();
+	}
+
+	public Cluster get(String name) {
+		Cluster cluster = clusters.get(name != null ? name : defaultCluster);
+		if (cluster == null) {
+			throw new IllegalArgumentException("Unknown cluster: " + name);
+		}
+		return cluster;
+	}
+
+	/**
+	 * Runs {@code read} against every cluster in parallel and merges what comes back in time.
+	 * A cluster that throws or does not answer within its timeout is reported in
+	 * {@link FanOut#failures()} instead of failing or stalling the whole read. A read that times out
+	 * is interrupted, so a hung apiserver does not keep one more executor thread per request.
+	 */
+	public <T> FanOut<T> fanOut(Function<Cluster, List<T>> read) {
+		long started = System.nanoTime();
+		Map<String, Future<List<T>>> pending = new LinkedHashMap<>();
+		for (Cluster cluster : clusters.values()) {
+			Supplier<List<T>> task = KubernetesApiCalls.propagate(() -> read.apply(cluster));
+			pending.put(cluster.name(), executor.submit(task::get));
+		}
+
+		List<T> items = new ArrayList<>();
+		Map<String, String> failures = new LinkedHashMap<>();
+		pending.forEach((name, future) -> {
+			Duration timeout = clusters.get(name).timeout();
+			try {
+				long remaining = timeout.toNanos() - (System.nanoTime() - started);
+				items.addAll(future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS));
+			} catch (TimeoutException e) {
+				fail(failures, name, "timed out after " + timeout.toMillis() + "ms");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause() != null ? e.getCause() : e;
+				fail(failures, name, String.valueOf(cause.getMessage()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fail(failures, name, "interrupted");
+			} finally {
+				// Interrupts the read if it is still blocked on the apiserver
+				future.cancel(true);
+			}
+		});
+		return new FanOut<>(items, failures);
+	}
+
+	private static void fail(Map<String, String> failures, String name, String reason) {
+		System.out.println("Cluster " + name + " left out of result: " + reason);
+		failures.put(name, reason);
+	}
+
+	public void close() {
+		for (Cluster cluster : clusters.values()) {
+			cluster.cache().stop();
+			if (cluster.owned()) {
+				cluster.client().close();
+			}
+		}
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,194 @@
+package com.jonathan.spring_boot;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "console")
+public class ConsoleProperties {
+
+	private final Cache cache = new Cache();
+	private final Deploy deploy = new Deploy();
+	private final Stream stream = new Stream();
+	private final Reconcile reconcile = new Reconcile();
+	private final Operations operations = new Operations();
+	private final Kubernetes kubernetes = new Kubernetes();
+	private final Rollout rollout = new Rollout();
+	private final Logs logs = new Logs();
+	private final BulkImport bulkImport = new BulkImport();
+	private final Export export = new Export();
+	private final Blueprints blueprints = new Blueprints();
+	private final Coordination coordination = new Coordination();
+	private final Snapshots snapshots = new Snapshots();
+	private final Pagination pagination = new Pagination();
+
+	@Getter
+	@Setter
+	public static class Cache {
+		// When disabled every read goes straight to the apiserver
+		private boolean enabled = true;
+		// Zero disables periodic resync; the watch keeps the store current
+		private Duration resyncPeriod = Duration.ZERO;
+	}
+
+	@Getter
+	@Setter
+	public static class Deploy {
+		// Upper bound on concurrent apiserver mutations issued by deploy-all
+		private int concurrency = 8;
+	}
+
+	@Getter
+	@Setter
+	public static class Stream {
+		// Clients reconnect automatically once an emitter times out
+		private Duration timeout = Duration.ofMinutes(30);
+		private Duration heartbeat = Duration.ofSeconds(20);
+		// Events queued per subscriber; a client that falls this far behind is disconnected
+		private int bufferEvents = 256;
+	}
+
+	@Getter
+	@Setter
+	public static class Reconcile {
+		private boolean enabled = true;
+		private int workers = 2;
+		// Ceiling on how fast queued applications are handed to the workers
+		private double permitsPerSecond = 10;
+		private Duration resyncPeriod = Duration.ofMinutes(5);
+		private Duration baseDelay = Duration.ofSeconds(1);
+		private Duration maxDelay = Duration.ofMinutes(5);
+	}
+
+	@Getter
+	@Setter
+	public static class Operations {
+		// Worker threads shared by all per-application queues
+		private int workers = 4;
+		// How long finished operations stay queryable
+		private Duration retention = Duration.ofMinutes(10);
+	}
+
+	@Getter
+	@Setter
+	public static class Kubernetes {
+		// Client-side token bucket in front of every apiserver call, one per cluster; qps <= 0 disables it
+		private double qps = 20;
+		private int burst = 40;
+		// Name of the cluster reached through the default kubeconfig / in-cluster client
+		private String clusterName = "default";
+		// How long a fanned-out read waits for one cluster before leaving it out of the result
+		private Duration clusterTimeout = Duration.ofSeconds(5);
+		// Further clusters, each reached through a kubeconfig context or a bare master URL
+		private List<Cluster> clusters = new ArrayList<>();
+	}
+
+	@Getter
+	@Setter
+	public static class Cluster {
+		private String name;
+		private String context;
+		private String masterUrl;
+		// Overrides kubernetes.cluster-timeout for this cluster
+		private Duration timeout;
+		// Override kubernetes.qps / kubernetes.burst for this cluster's token bucket
+		private Double qps;
+		private Integer burst;
+	}
+
+	@Getter
+	@Setter
+	public static class Rollout {
+		// How long /rollout holds the request when the caller does not say
+		private Duration timeout = Duration.ofMinutes(2);
+		// Upper bound for a caller-supplied timeoutSeconds
+		private Duration maxTimeout = Duration.ofMinutes(10);
+	}
+
+	@Getter
+	@Setter
+	public static class Logs {
+		// Lines of history per pod when the caller does not say, and the cap on what it may ask for
+		private int tailLines = 100;
+		private int maxTailLines = 5000;
+		// Pods tailed by one request; the rest are left out
+		private int maxPods = 20;
+		// Lines queued per pod for a slow client before further lines are dropped
+		private int bufferLines = 1000;
+		// Longer lines are cut so one runaway line cannot grow a buffer without bound
+		private int maxLineLength = 16 * 1024;
+		// Concurrent tails; each holds one thread per pod
+		private int maxSessions = 16;
+		private Duration timeout = Duration.ofMinutes(30);
+	}
+
+	@Getter
+	@Setter
+	public static class BulkImport {
+		// Rows per name-conflict query, JDBC batch and transaction
+		private int chunkSize = 500;
+		// Problems listed in the response; the counts stay exact past this
+		private int maxErrors = 100;
+	}
+
+	@Getter
+	@Setter
+	public static class Export {
+		// Rows per keyset page; the response is flushed after each one
+		private int pageSize = 500;
+	}
+
+	@Getter
+	@Setter
+	public static class Blueprints {
+		// When disabled every blueprint read goes to the database
+		private boolean cacheEnabled = true;
+		private long maximumSize = 10_000;
+		// Upper bound on staleness should an invalidation from another replica be missed
+		private Duration ttl = Duration.ofMinutes(5);
+	}
+
+	@Getter
+	@Setter
+	public static class Coordination {
+		// Off: this replica is the only one and runs all background work
+		private boolean enabled = false;
+		// Where the leases live; defaults to the client's namespace (the pod's own in-cluster)
+		private String namespace;
+		// Defaults to HOSTNAME, which is the pod name
+		private String identity;
+		private String leaseName = "console-leader";
+		private Duration leaseDuration = Duration.ofSeconds(15);
+		private Duration renewDeadline = Duration.ofSeconds(10);
+		private Duration retryPeriod = Duration.ofSeconds(2);
+		// Sharded: every replica reconciles its slice of applications; otherwise only the leader does
+		private boolean sharded = true;
+		// Points per replica on the hash ring; more spreads applications more evenly
+		private int virtualNodes = 64;
+	}
+
+	@Getter
+	@Setter
+	public static class Snapshots {
+		// Deployment lists younger than this are served without touching the clusters
+		private Duration freshFor = Duration.ofSeconds(2);
+		// Older lists are still served, marked stale, while one refresh runs in the background
+		private Duration serveStaleFor = Duration.ofMinutes(5);
+		// After a change, how long a request waits for the new list before taking the old one
+		private Duration refreshWait = Duration.ofSeconds(2);
+	}
+
+	@Getter
+	@Setter
+	public static class Pagination {
+		// Page size of a filtered or paged list request that names no limit
+		private int defaultLimit = 100;
+		private int maxLimit = 1000;
+	}
+}
@@ -0,0 +1,274 @@
+package com.jonathan.spring_boot;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Informer-backed local copy of one cluster's app-labelled Deployments, Services and Pods, one set
+ * of informers per namespace; each cluster in the {@link ClusterRegistry} owns one. A namespace's
+ * informers are started the first time it is asked about and stopped by {@link #retainNamespaces}
+ * once no blueprint targets it, so watch connections and memory follow the namespaces in use
+ * rather than the whole cluster. Reads for a namespace are served from memory
+ * once its Deployment and Service informers have completed their initial list; until then
+ * {@link #synced(String)} is empty and callers are expected to go to the apiserver.
+ * Pods sync on their own ({@link #podsSynced(String)}) so a namespace with many of them
+ * does not hold back Deployment reads.
+ */
+@RequiredArgsConstructor
+public class DeploymentCache {
+	static final String NAME_INDEX = "name";
+	static final String APP_INDEX = "app";
+
+	private final KubernetesClient kubernetesClient;
+	private final ConsoleProperties properties;
+
+	private final Map<String, NamespaceInformers> namespaces = new ConcurrentHashMap<>();
+	private final List<ResourceEventHandler<Deployment>> deploymentHandlers = new CopyOnWriteArrayList<>();
+	private final List<ResourceEventHandler<Service>> serviceHandlers = new CopyOnWriteArrayList<>();
+
+	public void stop() {
+		namespaces.values().forEach(NamespaceInformers::stop);
+		namespaces.clear();
+	}
+
+	public boolean isEnabled() {
+		return properties.getCache().isEnabled();
+	}
+
+	/** True once the namespace's informers have synced; the first call for a namespace starts them. */
+	public boolean isSynced(String namespace) {
+		NamespaceInformers informers = informers(namespace);
+		return informers != null && informers.isSynced();
+	}
+
+	/** True when at least one namespace is watched and every namespace watched so far has synced. */
+	public boolean isSynced() {
+		return isEnabled() && !namespaces.isEmpty() && namespaces.values().stream().allMatch(NamespaceInformers::isSynced);
+	}
+
+	public Set<String> namespaces() {
+		return new TreeSet<>(namespaces.keySet());
+	}
+
+	/** Stops the informers of every watched namespace not in {@code active}. */
+	public void retainNamespaces(Collection<String> active) {
+		for (String namespace : namespaces.keySet()) {
+			if (!active.contains(namespace)) {
+				NamespaceInformers evicted = namespaces.remove(namespace);
+				if (evicted != null) {
+					evicted.stop();
+					System.out.println("Stopped informers for namespace " + namespace + " (no blueprints left)");
+				}
+			}
+		}
+	}
+
+	/**
+	 * The namespace's informers once its Deployments and Services have synced, starting the namespace on
+	 * first use; empty while they are still listing or once {@link #retainNamespaces} has evicted them,
+	 * in which case callers go to the apiserver. Reads go through the returned view, so the entry is
+	 * looked up once and an eviction racing the read cannot pull it out from under the caller.
+	 */
+	public Optional<NamespaceView> synced(String namespace) {
+		NamespaceInformers informers = informers(namespace);
+		return informers != null && informers.isSynced() ? Optional.of(new NamespaceView(informers)) : Optional.empty();
+	}
+
+	/** Like {@link #synced(String)}, gated on the pod informer instead; only the view's pod reads are meaningful. */
+	public Optional<NamespaceView> podsSynced(String namespace) {
+		NamespaceInformers informers = informers(namespace);
+		return informers != null && informers.pods.hasSynced() ? Optional.of(new NamespaceView(informers)) : Optional.empty();
+	}
+
+	/**
+	 * Lookups for informer event handlers: they neither start a namespace (an event arriving just
+	 * after eviction must not bring it back) nor throw once it is gone, and return null unless it has synced.
+	 */
+	public Deployment deployment(String namespace, String name) {
+		NamespaceInformers informers = namespaces.get(namespace);
+		return informers != null && informers.isSynced() ? new NamespaceView(informers).deployment(name) : null;
+	}
+
+	public Service service(String namespace, String name) {
+		NamespaceInformers informers = namespaces.get(namespace);
+		return informers != null && informers.isSynced() ? new NamespaceView(informers).service(name) : null;
+	}
+
+	/** Deployments from every watched namespace that has synced. */
+	public List<Deployment> deployments() {
+		List<Deployment> all = new ArrayList<>();
+		namespaces.values().stream()
+				.filter(NamespaceInformers::isSynced)
+				.forEach(informers -> all.addAll(informers.deployments.getStore().list()));
+		return all;
+	}
+
+	// Handlers are attached to the informers of every namespace, including ones started later
+	public void addDeploymentHandler(ResourceEventHandler<Deployment> handler) {
+		deploymentHandlers.add(handler);
+		namespaces.values().forEach(informers -> informers.deployments.addEventHandler(handler));
+	}
+
+	public void addServiceHandler(ResourceEventHandler<Service> handler) {
+		serviceHandlers.add(handler);
+		namespaces.values().forEach(informers -> informers.services.addEventHandler(handler));
+	}
+
+	public int deploymentCount() {
+		return namespaces.values().stream().mapToInt(informers -> informers.deployments.getStore().list().size()).sum();
+	}
+
+	public int serviceCount() {
+		return namespaces.values().stream().mapToInt(informers -> informers.services.getStore().list().size()).sum();
+	}
+
+	public int podCount() {
+		return namespaces.values().stream().mapToInt(informers -> informers.pods.getStore().list().size()).sum();
+	}
+
+	private NamespaceInformers informers(String namespace) {
+		if (!isEnabled()) {
+			return null;
+		}
+		return namespaces.computeIfAbsent(namespace, this::startInformers);
+	}
+
+	private NamespaceInformers startInformers(String namespace) {
+		long resync = properties.getCache().getResyncPeriod().toMillis();
+
+		SharedIndexInformer<Deployment> deployments = kubernetesClient.apps().deployments()
+				.inNamespace(namespace)
+				.withLabel(APP_INDEX)
+				.runnableInformer(resync);
+		SharedIndexInformer<Service> services = kubernetesClient.services()
+				.inNamespace(namespace)
+				.withLabel(APP_INDEX)
+				.runnableInformer(resync);
+		SharedIndexInformer<Pod> pods = kubernetesClient.pods()
+				.inNamespace(namespace)
+				.withLabel(APP_INDEX)
+				.runnableInformer(resync);
+		deploymentHandlers.forEach(deployments::addEventHandler);
+		serviceHandlers.forEach(services::addEventHandler);
+
+		startInformer(namespace, deployments);
+		startInformer(namespace, services);
+		startInformer(namespace, pods);
+		System.out.println("Started informers for namespace " + namespace);
+		return new NamespaceInformers(deployments, services, pods);
+	}
+
+	private <T extends HasMetadata> void startInformer(String namespace, SharedIndexInformer<T> informer) {
+		informer.addIndexers(Map.of(
+				NAME_INDEX, nameIndex(),
+				APP_INDEX, appLabelIndex()
+		));
+		// Keep retrying the initial list so an unreachable apiserver only delays the sync
+		informer.exceptionHandler((started, t) -> {
+			System.out.println("Informer for " + informer.getApiTypeClass().getSimpleName()
+					+ " in namespace " + namespace + " failed: " + t.getMessage());
+			return true;
+		});
+		informer.start();
+	}
+
+	private static <T extends HasMetadata> Function<T, List<String>> nameIndex() {
+		return r -> r.getMetadata() != null && r.getMetadata().getName() != null
+				? List.of(r.getMetadata().getName())
+				: Collections.emptyList();
+	}
+
+	private static <T extends HasMetadata> Function<T, List<String>> appLabelIndex() {
+		return r -> {
+			if (r.getMetadata() == null || r.getMetadata().getLabels() == null) {
+				return Collections.emptyList();
+			}
+			String app = r.getMetadata().getLabels().get("app");
+			return app != null ? List.of(app) : Collections.emptyList();
+		};
+	}
+
+	private static <T> T first(List<T> items) {
+		return (items == null || items.isEmpty()) ? null : items.get(0);
+	}
+
+	/** Reads over one namespace's informers, handed out by {@link #synced(String)}. */
+	public static final class NamespaceView {
+		private final NamespaceInformers informers;
+
+		private NamespaceView(NamespaceInformers informers) {
+			this.informers = informers;
+		}
+
+		public List<Deployment> deployments() {
+			return informers.deployments.getStore().list();
+		}
+
+		public Deployment deployment(String name) {
+			return first(informers.deployments.getIndexer().byIndex(NAME_INDEX, name));
+		}
+
+		public List<Deployment> deploymentsForApp(String app) {
+			return informers.deployments.getIndexer().byIndex(APP_INDEX, app);
+		}
+
+		public List<Service> services() {
+			return informers.services.getStore().list();
+		}
+
+		public Service service(String name) {
+			return first(informers.services.getIndexer().byIndex(NAME_INDEX, name));
+		}
+
+		public List<Service> servicesForApp(String app) {
+			return informers.services.getIndexer().byIndex(APP_INDEX, app);
+		}
+
+		// Pod templates carry the app label, so this is every pod of every ReplicaSet of the app
+		public List<Pod> podsForApp(String app) {
+			return informers.pods.getIndexer().byIndex(APP_INDEX, app);
+		}
+
+		/**
+		 * Last resourceVersions the Deployment and Service informers saw. They move with every
+		 * watch event, so they stand in for the list resourceVersion.
+		 */
+		public String resourceVersion() {
+			return informers.deployments.lastSyncResourceVersion() + "," + informers.services.lastSyncResourceVersion();
+		}
+	}
+
+	private record NamespaceInformers(
+			SharedIndexInformer<Deployment> deployments,
+			SharedIndexInformer<Service> services,
+			SharedIndexInformer<Pod> pods
+	) {
+		boolean isSynced() {
+			return deployments.hasSynced() && services.hasSynced();
+		}
+
+		void stop() {
+			deployments.stop();
+			services.stop();
+			pods.stop();
+		}
+	}
+}
@@ -1,23 +1,54 @@
 package com.jonathan.spring_boot;
 
 import com.jonathan.spring_boot.req_res.ActiveDeploymentResponse;
+import com.jonathan.spring_boot.req_res.BulkActionRequest;
+import com.jonathan.spring_boot.req_res.CacheStatusResponse;
+import com.jonathan.spring_boot.req_res.CoordinationStatusResponse;
+import com.jonathan.spring_boot.req_res.DeploymentResult;
+import com.jonathan.spring_boot.req_res.DriftResponse;
+import com.jonathan.spring_boot.req_res.OperationResponse;
+import com.jonathan.spring_boot.req_res.PodResponse;
+import com.jonathan.spring_boot.req_res.RolloutStatusResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/deployment")
 @RequiredArgsConstructor
 public class DeploymentController {
-
+	static final String UNAVAILABLE_CLUSTERS_HEADER = "X-Unavailable-Clusters";
+	static final String STALE_HEADER = "X-Snapshot-Stale";
 	private final DeploymentService deploymentService;
+	private final DeploymentEventPublisher deploymentEventPublisher;
+	private final OperationQueue operationQueue;
+	private final RolloutTracker rolloutTracker;
+	private final LogTailer logTailer;
+	private final ReplicaCoordinator coordinator;
+	private final DeploymentSnapshots snapshots;
+	private final ConsoleProperties properties;
 
 	@PostMapping("/all")
-	public void deployApplications() {
-		deploymentService.deployAllApplications();
+	public ResponseEntity<List<DeploymentResult>> deployApplications() {
+		return ResponseEntity.ok(deploymentService.deployAllApplications());
+	}
+
+	@PostMapping("/bulk")
+	public ResponseEntity<List<DeploymentResult>> bulkAction(@RequestBody BulkActionRequest request) {
+		return ResponseEntity.ok(deploymentService.bulkAction(request));
 	}
 
 	@PostMapping("/{applicationId}")
@@ -25,14 +56,77 @@ public class DeploymentController {
 		deploymentService.createDeployment(applicationId);
 	}
 
+	/**
+	 * Deployments of every cluster, or with {@code limit}, {@code cursor}, {@code name} or
+	 * {@code image} a keyset page ordered by cluster, namespace and name. If-None-Match is checked
+	 * against the clusters' current resourceVersions before the list is read at all.
+	 */
 	@GetMapping
-	public ResponseEntity<List<ActiveDeploymentResponse>> getDeployments() {
-		return ResponseEntity.ok(deploymentService.listDeployments());
+	public ResponseEntity<List<ActiveDeploymentResponse>> getDeployments(
+			@RequestParam(required = false) Integer limit,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) String name,
+			@RequestParam(required = false) String image,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+	) {
+		ListQuery query = ListQuery.of(limit, cursor, name, image, properties.getPagination());
+		if (ifNoneMatch != null) {
+			String version = snapshots.deploymentsVersion();
+			if (version != null && ListQuery.notModified(ifNoneMatch, query.etag(version))) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(query.etag(version))
+						.cacheControl(CacheControl.noCache()).build();
+			}
+		}
+		return snapshot(snapshots.deployments(), query);
 	}
 
 	@GetMapping("/active")
 	public ResponseEntity<List<ActiveDeploymentResponse>> getActiveDeployments() {
-		return ResponseEntity.ok(deploymentService.listActiveDeploymentsWithDbInfo());
+		return snapshot(snapshots.active(), null);
+	}
+
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> streamDeployments() {
+		if (!deploymentEventPublisher.isAvailable()) {
+			return ResponseEntity.status(503).build();
+		}
+		return ResponseEntity.ok(deploymentEventPublisher.subscribe());
+	}
+
+	@GetMapping("/drift")
+	public ResponseEntity<List<DriftResponse>> getDrift() {
+		return merged(deploymentService.listDrift());
+	}
+
+	@GetMapping("/cache")
+	public ResponseEntity<List<CacheStatusResponse>> getCacheStatus() {
+		return ResponseEntity.ok(deploymentService.cacheStatus());
+	}
+
+	@GetMapping("/coordination")
+	public ResponseEntity<CoordinationStatusResponse> getCoordinationStatus() {
+		return ResponseEntity.ok(coordinator.status());
+	}
+
+	@GetMapping("/{applicationId}/pods")
+	public ResponseEntity<List<PodResponse>> getPods(@PathVariable UUID applicationId) {
+		return ResponseEntity.of(deploymentService.listPods(applicationId));
+	}
+
+	/**
+	 * Merged log tail of every pod of the application as SSE: a {@code pods} event naming the pods,
+	 * then {@code log} events, and {@code dropped} events counting lines lost to a slow client.
+	 */
+	@GetMapping(path = "/{applicationId}/logs", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> streamLogs(
+			@PathVariable UUID applicationId,
+			@RequestParam(required = false) Integer tailLines,
+			@RequestParam(defaultValue = "true") boolean follow
+	) {
+		if (!logTailer.reserve()) {
+			return ResponseEntity.status(503).build();
+		}
+		return ResponseEntity.of(logTailer.stream(applicationId, tailLines, follow));
 	}
 
 	@DeleteMapping("/{applicationId}")
@@ -47,49 +141,123 @@ public class DeploymentController {
 	}
 
 	@PostMapping("/{applicationId}/service")
-	public void exposeApplication(
+	public ResponseEntity<OperationResponse> exposeApplication(
 			@PathVariable UUID applicationId,
 			@RequestParam(defaultValue = "NodePort") String type
 	) {
-		deploymentService.exposeApplication(applicationId, type);
+		return accepted(operationQueue.expose(applicationId, type));
 	}
 
 	@PostMapping("/{applicationId}/start")
-	public ResponseEntity<String> startDeployment(
+	public ResponseEntity<OperationResponse> startDeployment(
 			@PathVariable UUID applicationId,
 			@RequestParam(defaultValue = "1") int replicas
 	) {
-		if (applicationId == null || applicationId.toString().isEmpty()) {
-			throw new IllegalArgumentException("Application name must be provided");
-		}
 		if (replicas < 0) {
 			throw new IllegalArgumentException("Replicas must be >= 0");
 		}
-		if (!deploymentService.startDeployment(applicationId, replicas)) {
-			return ResponseEntity.status(404).body("Deployment not found for application: " + applicationId);
-		}
-		return ResponseEntity.ok("Scaled deployment for application: " + applicationId);
+		return accepted(operationQueue.scale(applicationId, replicas));
 	}
 
 	@PostMapping("/{applicationId}/stop")
-	public ResponseEntity<String> stopDeployment(@PathVariable UUID applicationId) {
-		if (applicationId == null || applicationId.toString().isEmpty()) {
-			throw new IllegalArgumentException("Application name must be provided");
+	public ResponseEntity<OperationResponse> stopDeployment(@PathVariable UUID applicationId) {
+		return accepted(operationQueue.scale(applicationId, 0));
+	}
+
+	@PostMapping("/{applicationId}/restart")
+	public ResponseEntity<OperationResponse> restartDeployment(@PathVariable UUID applicationId) {
+		return accepted(operationQueue.restart(applicationId));
+	}
+
+	/**
+	 * Holds the request until the application's rollout completes, fails or the timeout elapses,
+	 * replacing client-side polling of the deployment list.
+	 */
+	@GetMapping("/{applicationId}/rollout")
+	public DeferredResult<RolloutStatusResponse> getRollout(
+			@PathVariable UUID applicationId,
+			@RequestParam(required = false) Long timeoutSeconds
+	) {
+		Duration max = properties.getRollout().getMaxTimeout();
+		Duration timeout = timeoutSeconds != null ? Duration.ofSeconds(Math.max(0, timeoutSeconds)) : properties.getRollout().getTimeout();
+		if (timeout.compareTo(max) > 0) {
+			timeout = max;
 		}
-		if (!deploymentService.stopDeployment(applicationId)) {
-			return ResponseEntity.status(404).body("Deployment not found for application: " + applicationId);
+		// The tracker answers TIMED_OUT itself; the MVC timeout is only a backstop
+		DeferredResult<RolloutStatusResponse> result = new DeferredResult<>(timeout.plusSeconds(5).toMillis());
+		rolloutTracker.await(applicationId, timeout).whenComplete((status, error) -> {
+			if (error != null) {
+				result.setErrorResult(error);
+			} else {
+				result.setResult(status);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Status of a queued lifecycle operation. With {@code waitSeconds} the request is held until the
+	 * operation finishes or the wait elapses, whichever comes first.
+	 */
+	@GetMapping("/operations/{operationId}")
+	public CompletableFuture<ResponseEntity<OperationResponse>> getOperation(
+			@PathVariable UUID operationId,
+			@RequestParam(defaultValue = "0") long waitSeconds
+	) {
+		if (waitSeconds <= 0) {
+			return CompletableFuture.completedFuture(ResponseEntity.of(operationQueue.get(operationId)));
 		}
-		return ResponseEntity.ok("Stopped deployment for application: " + applicationId);
+		return operationQueue.completion(operationId)
+				.map(done -> done
+						.completeOnTimeout(null, Math.min(waitSeconds, 60), TimeUnit.SECONDS)
+						.thenApply(ignored -> ResponseEntity.of(operationQueue.get(operationId))))
+				.orElseGet(() -> CompletableFuture.completedFuture(ResponseEntity.notFound().build()));
 	}
 
-	@PostMapping("/{applicationId}/restart")
-	public ResponseEntity<String> restartDeployment(@PathVariable UUID applicationId) {
-		if (applicationId == null || applicationId.toString().isEmpty()) {
-			throw new IllegalArgumentException("Application name must be provided");
+	// Rows from the clusters that answered; the ones that did not are named in a header
+	private static <T> ResponseEntity<List<T>> merged(ClusterRegistry.FanOut<T> result) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (!result.failures().isEmpty()) {
+			response.header(UNAVAILABLE_CLUSTERS_HEADER, String.join(",", result.failures().keySet()));
 		}
-		if (!deploymentService.restartDeployment(applicationId)) {
-			return ResponseEntity.status(404).body("Deployment not found for application: " + applicationId);
+		return response.body(result.items());
+	}
+
+	// Age is how old the list is; the stale flag says a refresh was still running when it was served.
+	// The ETag is the version the snapshot was read at, never a newer one.
+	private static ResponseEntity<List<ActiveDeploymentResponse>> snapshot(SnapshotCache.Snapshot<DeploymentSnapshots.Listing> snapshot,
+			ListQuery query) {
+		ClusterRegistry.FanOut<ActiveDeploymentResponse> result = snapshot.value().rows();
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.header(HttpHeaders.AGE, String.valueOf(snapshot.age().toSeconds()));
+		if (!result.failures().isEmpty()) {
+			response.header(UNAVAILABLE_CLUSTERS_HEADER, String.join(",", result.failures().keySet()));
+		}
+		if (snapshot.stale()) {
+			response.header(STALE_HEADER, "true");
 		}
-		return ResponseEntity.ok("Restarted deployment for application: " + applicationId);
+		if (query == null) {
+			return response.body(result.items());
+		}
+		response.cacheControl(CacheControl.noCache());
+		if (snapshot.value().version() != null) {
+			response.eTag(query.etag(snapshot.value().version()));
+		}
+		if (!query.paged()) {
+			return response.body(result.items());
+		}
+		KeysetPage<ActiveDeploymentResponse> page = query.page(result.items(),
+				row -> row.getCluster() + "/" + row.getNamespace() + "/" + row.getName(),
+				row -> query.matches(row.getName(), row.getImage()));
+		if (page.nextCursor() != null) {
+			response.header(ListQuery.NEXT_CURSOR_HEADER, page.nextCursor());
+		}
+		return response.body(page.items());
+	}
+
+	private static ResponseEntity<OperationResponse> accepted(OperationResponse operation) {
+		return ResponseEntity.accepted()
+				.location(URI.create("/api/deployment/operations/" + operation.getId()))
+				.body(operation);
 	}
 }
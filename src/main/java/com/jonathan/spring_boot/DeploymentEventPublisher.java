@@ -0,0 +1,244 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.ClusterRegistry.Cluster;
+import com.jonathan.spring_boot.req_res.ActiveDeploymentResponse;
+import com.jonathan.spring_boot.req_res.DeploymentEvent;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes Deployment changes seen by the {@link DeploymentCache} informers of every cluster and
+ * watched namespace to SSE subscribers.
+ * Each subscriber receives a {@code snapshot} event with the full list once the informers of
+ * every namespace a blueprint targets have synced, and one {@code deployment} event per change.
+ * Subscribing starts those informers; until they have all synced the snapshot is retried on
+ * every heartbeat, and changes seen meanwhile are already sent as deltas.
+ *
+ * <p>Every subscriber has its own bounded queue, drained on a thread of its own while it has
+ * events, so a slow client only delays itself and never the informer or other subscribers. A
+ * subscriber whose queue overflows ({@code console.stream.buffer-events}) is disconnected; the
+ * browser's EventSource reconnects and starts over from a fresh snapshot.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeploymentEventPublisher {
+	private final ClusterRegistry clusters;
+	private final ApplicationRepository applicationRepository;
+	private final ConsoleProperties properties;
+
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+	private final ScheduledExecutorService heartbeats =
+			Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("deployment-heartbeat-"));
+	// One drain task per subscriber with queued events; idle subscribers hold no thread
+	private final ExecutorService senders = Executors.newCachedThreadPool(new CustomizableThreadFactory("deployment-events-"));
+
+	@PostConstruct
+	public void start() {
+		clusters.all().forEach(this::watch);
+
+		long heartbeat = properties.getStream().getHeartbeat().toMillis();
+		heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+	}
+
+	private void watch(Cluster cluster) {
+		cluster.cache().addDeploymentHandler(new ResourceEventHandler<>() {
+			@Override
+			public void onAdd(Deployment d) {
+				publish(cluster, DeploymentEvent.Type.ADDED, d);
+			}
+
+			@Override
+			public void onUpdate(Deployment oldDeployment, Deployment newDeployment) {
+				ActiveDeploymentResponse before = toResponse(cluster, oldDeployment);
+				ActiveDeploymentResponse after = toResponse(cluster, newDeployment);
+				if (!before.equals(after)) {
+					publish(new DeploymentEvent(DeploymentEvent.Type.MODIFIED, after));
+				}
+			}
+
+			@Override
+			public void onDelete(Deployment d, boolean deletedFinalStateUnknown) {
+				publish(cluster, DeploymentEvent.Type.DELETED, d);
+			}
+		});
+
+		// A Service appearing or disappearing flips serviceEnabled on the matching Deployment
+		cluster.cache().addServiceHandler(new ResourceEventHandler<>() {
+			@Override
+			public void onAdd(Service svc) {
+				serviceChanged(cluster, svc);
+			}
+
+			@Override
+			public void onUpdate(Service oldService, Service newService) {
+			}
+
+			@Override
+			public void onDelete(Service svc, boolean deletedFinalStateUnknown) {
+				serviceChanged(cluster, svc);
+			}
+		});
+	}
+
+	@PreDestroy
+	public void stop() {
+		heartbeats.shutdownNow();
+		senders.shutdownNow();
+		subscribers.forEach(subscriber -> subscriber.emitter.complete());
+	}
+
+	public boolean isAvailable() {
+		return properties.getCache().isEnabled();
+	}
+
+	public SseEmitter subscribe() {
+		return subscribe(new SseEmitter(properties.getStream().getTimeout().toMillis()));
+	}
+
+	SseEmitter subscribe(SseEmitter emitter) {
+		Subscriber subscriber = new Subscriber(emitter, Math.max(1, properties.getStream().getBufferEvents()));
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(e -> subscribers.remove(subscriber));
+		subscribers.add(subscriber);
+		if (blueprintNamespacesSynced()) {
+			offerSnapshot(subscriber);
+		}
+		return emitter;
+	}
+
+	private void offerSnapshot(Subscriber subscriber) {
+		if (subscriber.snapshotSent.compareAndSet(false, true)) {
+			offer(subscriber, SseEmitter.event().name("snapshot").data(snapshot(), MediaType.APPLICATION_JSON));
+		}
+	}
+
+	// A snapshot missing a namespace would be taken as the whole truth, so one is only sent once every
+	// blueprint namespace is watched and synced; namespaces first targeted later arrive as deltas.
+	// Checks every namespace rather than stopping at the first unsynced one, so all of them start at once
+	private boolean blueprintNamespacesSynced() {
+		boolean synced = true;
+		for (ClusterNamespace cn : applicationRepository.findDistinctClusterNamespaces()) {
+			if (cn.cluster() != null && !clusters.contains(cn.cluster())) {
+				continue;
+			}
+			synced &= clusters.get(cn.cluster()).cache().synced(cn.namespace()).isPresent();
+		}
+		return synced;
+	}
+
+	int subscriberCount() {
+		return subscribers.size();
+	}
+
+	private List<ActiveDeploymentResponse> snapshot() {
+		return clusters.all().stream()
+				.flatMap(cluster -> cluster.cache().deployments().stream().map(d -> toResponse(cluster, d)))
+				.collect(Collectors.toList());
+	}
+
+	private void serviceChanged(Cluster cluster, Service svc) {
+		if (svc.getMetadata() == null) return;
+		String namespace = svc.getMetadata().getNamespace();
+		Deployment d = cluster.cache().deployment(namespace, svc.getMetadata().getName());
+		if (d != null) {
+			publish(cluster, DeploymentEvent.Type.MODIFIED, d);
+		}
+	}
+
+	private void publish(Cluster cluster, DeploymentEvent.Type type, Deployment d) {
+		publish(new DeploymentEvent(type, toResponse(cluster, d)));
+	}
+
+	private void publish(DeploymentEvent event) {
+		for (Subscriber subscriber : subscribers) {
+			offer(subscriber, SseEmitter.event().name("deployment").data(event, MediaType.APPLICATION_JSON));
+		}
+	}
+
+	private void heartbeat() {
+		boolean waiting = subscribers.stream().anyMatch(subscriber -> !subscriber.snapshotSent.get());
+		boolean ready = waiting && blueprintNamespacesSynced();
+		for (Subscriber subscriber : subscribers) {
+			if (ready) {
+				offerSnapshot(subscriber);
+			}
+			offer(subscriber, SseEmitter.event().comment("heartbeat"));
+		}
+	}
+
+	private void offer(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+		if (!subscriber.queue.offer(event)) {
+			System.out.println("Deployment stream subscriber fell " + subscriber.queue.size() + " events behind, disconnecting it");
+			disconnect(subscriber, new IOException("Subscriber too slow"));
+			return;
+		}
+		if (subscriber.draining.compareAndSet(false, true)) {
+			senders.execute(() -> drain(subscriber));
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+		while (true) {
+			SseEmitter.SseEventBuilder event;
+			while ((event = subscriber.queue.poll()) != null) {
+				try {
+					subscriber.emitter.send(event);
+				} catch (IOException | IllegalStateException e) {
+					disconnect(subscriber, e);
+					return;
+				}
+			}
+			subscriber.draining.set(false);
+			// An offer between the last poll and the reset saw draining still set; pick its event up
+			if (subscriber.queue.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+				return;
+			}
+		}
+	}
+
+	private void disconnect(Subscriber subscriber, Exception e) {
+		if (subscribers.remove(subscriber)) {
+			subscriber.queue.clear();
+			subscriber.emitter.completeWithError(e);
+		}
+	}
+
+	private ActiveDeploymentResponse toResponse(Cluster cluster, Deployment d) {
+		String name = d.getMetadata() != null ? d.getMetadata().getName() : null;
+		boolean serviceEnabled = name != null && cluster.cache().service(d.getMetadata().getNamespace(), name) != null;
+		return DeploymentService.toDeploymentResponse(cluster.name(), d, serviceEnabled);
+	}
+
+	private static final class Subscriber {
+		private final SseEmitter emitter;
+		private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+		private final AtomicBoolean draining = new AtomicBoolean();
+		private final AtomicBoolean snapshotSent = new AtomicBoolean();
+
+		private Subscriber(SseEmitter emitter, int capacity) {
+			this.emitter = emitter;
+			this.queue = new ArrayBlockingQueue<>(capacity);
+		}
+	}
+}
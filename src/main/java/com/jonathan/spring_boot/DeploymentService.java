@@ -1,44 +1,97 @@
 package com.jonathan.spring_boot;
 
+import com.jonathan.spring_boot.ClusterRegistry.Cluster;
 import com.jonathan.spring_boot.req_res.ActiveDeploymentResponse;
+import com.jonathan.spring_boot.req_res.BulkAction;
+import com.jonathan.spring_boot.req_res.BulkActionRequest;
+import com.jonathan.spring_boot.req_res.CacheStatusResponse;
+import com.jonathan.spring_boot.req_res.DeploymentOutcome;
+import com.jonathan.spring_boot.req_res.DeploymentResult;
+import com.jonathan.spring_boot.req_res.DriftResponse;
+import com.jonathan.spring_boot.req_res.PodContainerResponse;
+import com.jonathan.spring_boot.req_res.PodResponse;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
-import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
 import lombok.RequiredArgsConstructor;
-import tools.jackson.databind.JsonNode;
+import org.springframework.context.event.EventListener;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @org.springframework.stereotype.Service
 @RequiredArgsConstructor
 public class DeploymentService {
-	private static final String DEFAULT_NAMESPACE = "default";
-	private final KubernetesClient kubernetesClient;
+	private final ClusterRegistry clusters;
 	private final ApplicationRepository applicationRepository;
+	private final BlueprintCache blueprintCache;
+	private final ExecutorService deploymentExecutor;
+	private final KubernetesApiCalls kubernetesApi;
 
-	public void createDeployment(UUID blueprintId) {
-		String finalNs = DEFAULT_NAMESPACE;
-
+	public DeploymentOutcome createDeployment(UUID blueprintId) {
 		Application app = getApplication(blueprintId);
+		Cluster cluster = clusterOf(app);
+		return createDeployment(cluster, app, getLiveDeployment(cluster, app.getNamespace(), app.getName()));
+	}
+
+	private DeploymentOutcome createDeployment(Cluster cluster, Application app, Deployment live) {
+		String finalNs = app.getNamespace();
 
 		if (app.getImage() == null || app.getImage().isEmpty()) {
 			throw new IllegalArgumentException("Application image must be provided");
 		}
 
-		if (!deploymentExists(app.getName())) {
-			System.out.println("Creating deployment for application: " + app.getName());
-		} else {
-			System.out.println("Deployment already exists for application: " + app.getName());
-			return;
+		Deployment deployment = buildDeployment(app);
+
+		if (live != null) {
+			if (Objects.equals(SpecHash.annotation(live), SpecHash.annotation(deployment))) {
+				System.out.println("Deployment unchanged for application: " + app.getName());
+				return DeploymentOutcome.UNCHANGED;
+			}
+			applyTemplate(cluster, finalNs, deployment);
+			System.out.println("Deployment updated for application: " + app.getName());
+			// The new template may listen on another port; the Service has to follow it
+			if (app.getServiceEnabled()) {
+				syncService(cluster, app, finalNs);
+			}
+			return DeploymentOutcome.UPDATED;
 		}
 
+		System.out.println("Creating deployment for application: " + app.getName());
+		kubernetesApi.run(cluster, "create", "deployment", () ->
+				cluster.client().apps().deployments().inNamespace(finalNs).resource(deployment).create());
+		System.out.println("Deployment created for application: " + app.getName());
+
+		if (app.getServiceEnabled()) {
+			createOrUpdateService(cluster, app, finalNs, "ClusterIP");
+		}
+		return DeploymentOutcome.CREATED;
+	}
+
+	static Deployment buildDeployment(Application app) {
 		Deployment deployment = new DeploymentBuilder()
 				.withNewMetadata()
 				.withName(app.getName())
+				.withNamespace(app.getNamespace())
 				.addToLabels("app", app.getName())
 				.endMetadata()
 				.withNewSpec()
@@ -67,52 +120,131 @@ public class DeploymentService {
 				.endTemplate()
 				.endSpec()
 				.build();
+		deployment.getMetadata().getAnnotations().put(SpecHash.ANNOTATION, SpecHash.of(deployment.getSpec().getTemplate()));
+		return deployment;
+	}
 
-		kubernetesClient.apps().deployments().inNamespace(finalNs).resource(deployment).create();
-		System.out.println("Deployment created for application: " + app.getName());
+	// Swaps in the rendered pod template and hash but keeps the live replica count
+	private void applyTemplate(Cluster cluster, String namespace, Deployment desired) {
+		kubernetesApi.run(cluster, "edit", "deployment", () -> cluster.client().apps().deployments()
+				.inNamespace(namespace)
+				.withName(desired.getMetadata().getName())
+				.edit(d -> new DeploymentBuilder(d)
+						.editMetadata()
+						.addToAnnotations(SpecHash.ANNOTATION, SpecHash.annotation(desired))
+						.endMetadata()
+						.editSpec()
+						.withTemplate(desired.getSpec().getTemplate())
+						.endSpec()
+						.build()));
+	}
+
+	/**
+	 * Converges an already deployed application to its blueprint. Replica counts are left alone
+	 * because start/stop own them, and applications that were never deployed are not created.
+	 *
+	 * @return true if anything was changed on the cluster
+	 */
+	public boolean reconcile(UUID applicationId) {
+		// Read past the cache: a replica that has not seen the invalidation yet must not roll back a change
+		Application app = applicationRepository.findById(applicationId).orElse(null);
+		if (app == null || app.getImage() == null || app.getImage().isEmpty()) {
+			return false;
+		}
+		Cluster cluster = clusterOf(app);
+		String finalNs = app.getNamespace();
+
+		Deployment live = getLiveDeployment(cluster, finalNs, app.getName());
+		if (live == null) {
+			return false;
+		}
+
+		boolean changed = false;
+		Deployment desired = buildDeployment(app);
+		if (!Objects.equals(SpecHash.annotation(live), SpecHash.annotation(desired))) {
+			applyTemplate(cluster, finalNs, desired);
+			System.out.println("Deployment reconciled for application: " + app.getName());
+			changed = true;
+		}
 
-		if (!app.getServiceEnabled()) return;
-		createOrUpdateService(app, finalNs, "ClusterIP");
+		if (app.getServiceEnabled() && syncService(cluster, app, finalNs)) {
+			changed = true;
+		}
+		return changed;
 	}
 
-	public void exposeApplication(UUID blueprintId, String type) {
-		String finalNs = "default";
+	// Creates or corrects the app's Service, keeping the type it was exposed with; true if it changed
+	private boolean syncService(Cluster cluster, Application app, String namespace) {
+		Optional<DeploymentCache.NamespaceView> cached = cluster.cache().synced(namespace);
+		Service svc = cached.isPresent()
+				? cached.get().service(app.getName())
+				: kubernetesApi.call(cluster, "get", "service", () ->
+						cluster.client().services().inNamespace(namespace).withName(app.getName()).get());
+		if (svc != null && !serviceDiffers(svc, app)) {
+			return false;
+		}
+		String type = (svc != null && svc.getSpec() != null) ? svc.getSpec().getType() : "ClusterIP";
+		createOrUpdateService(cluster, app, namespace, type);
+		return true;
+	}
 
+	private static boolean serviceDiffers(Service live, Application app) {
+		if (live.getSpec() == null || live.getSpec().getPorts() == null || live.getSpec().getPorts().size() != 1) {
+			return true;
+		}
+		ServicePort port = live.getSpec().getPorts().get(0);
+		return !Objects.equals(port.getPort(), app.getContainerPort())
+				|| port.getTargetPort() == null
+				|| !Objects.equals(port.getTargetPort().getIntVal(), app.getContainerPort())
+				|| !Objects.equals(live.getSpec().getSelector(), Collections.singletonMap("app", app.getName()));
+	}
+
+	public void exposeApplication(UUID blueprintId, String type) {
 		Application app = getApplication(blueprintId);
 
-		createOrUpdateService(app, finalNs, type);
+		createOrUpdateService(clusterOf(app), app, app.getNamespace(), type);
 	}
 
 	private Application getApplication(UUID blueprintId) {
-		return applicationRepository.findById(blueprintId)
+		return blueprintCache.findById(blueprintId)
 				.orElseThrow(() -> new RuntimeException("Application not found: " + blueprintId));
 	}
 
-	private void createOrUpdateService(Application app, String namespace, String type) {
-		String svcType = (type == null || type.isBlank()) ? "ClusterIP" : type;
-
-		ServicePort servicePort = new ServicePortBuilder()
-				.withName("http")
-				.withProtocol("TCP")
-				.withPort(app.getContainerPort())
-				.withTargetPort(new IntOrString(app.getContainerPort()))
-				.build();
-
-		Service service = new ServiceBuilder()
+	static Service buildService(Application app, String svcType) {
+		return new ServiceBuilder()
 				.withNewMetadata()
 				.withName(app.getName())
+				.withNamespace(app.getNamespace())
 				.addToLabels("app", app.getName())
 				.endMetadata()
 				.withNewSpec()
 				.withType(svcType)
 				.addToSelector("app", app.getName())
-				.addToPorts(servicePort)
+				.addToPorts(buildServicePort(app))
 				.endSpec()
 				.build();
+	}
 
-		Service existing = kubernetesClient.services().inNamespace(namespace).withName(app.getName()).get();
+	private static ServicePort buildServicePort(Application app) {
+		return new ServicePortBuilder()
+				.withName("http")
+				.withProtocol("TCP")
+				.withPort(app.getContainerPort())
+				.withTargetPort(new IntOrString(app.getContainerPort()))
+				.build();
+	}
+
+	private void createOrUpdateService(Cluster cluster, Application app, String namespace, String type) {
+		String svcType = (type == null || type.isBlank()) ? "ClusterIP" : type;
+
+		ServicePort servicePort = buildServicePort(app);
+		Service service = buildService(app, svcType);
+
+		Service existing = kubernetesApi.call(cluster, "get", "service", () ->
+				cluster.client().services().inNamespace(namespace).withName(app.getName()).get());
 		if (existing == null) {
-			kubernetesClient.services().inNamespace(namespace).resource(service).create();
+			kubernetesApi.run(cluster, "create", "service", () ->
+					cluster.client().services().inNamespace(namespace).resource(service).create());
 			System.out.println("Service created for application: " + app.getName() + " (type=" + svcType + ")");
 			return;
 		}
@@ -128,161 +260,354 @@ public class DeploymentService {
 				.endSpec()
 				.build();
 
-		kubernetesClient.services().inNamespace(namespace).resource(updated).replace();
+		kubernetesApi.run(cluster, "replace", "service", () ->
+				cluster.client().services().inNamespace(namespace).resource(updated).replace());
 		System.out.println("Service updated for application: " + app.getName() + " (type=" + svcType + ")");
 	}
 
 
-	private List<EnvVar> getEnvVars(Object envJsonObj) {
-		if (envJsonObj == null) {
+	// Sorted by name so the rendered template, and therefore its spec hash, is independent of map order
+	static List<EnvVar> getEnvVars(Map<String, String> env) {
+		if (env == null || env.isEmpty()) {
 			return Collections.emptyList();
 		}
 
-		JsonNode envJson;
-		if (envJsonObj instanceof JsonNode) {
-			envJson = (JsonNode) envJsonObj;
-		} else {
-			try {
-				envJson = new tools.jackson.databind.ObjectMapper().readTree(envJsonObj.toString());
-			} catch (Exception e) {
-				return Collections.emptyList();
-			}
-		}
-
-		if (envJson == null || envJson.isNull() || envJson.isMissingNode()) {
-			return Collections.emptyList();
-		}
-		if (!envJson.isObject() || envJson.isEmpty()) {
-			return Collections.emptyList();
+		List<EnvVar> vars = new ArrayList<>(env.size());
+		for (Map.Entry<String, String> entry : new TreeMap<>(env).entrySet()) {
+			String v = entry.getValue() == null ? "" : entry.getValue();
+			vars.add(new EnvVar(entry.getKey(), v, null));
 		}
-
-		return envJson.properties().stream()
-				.map(entry -> {
-					JsonNode value = entry.getValue();
-					String v = (value == null || value.isNull()) ? "" : value.asString();
-					return new EnvVar(entry.getKey(), v, null);
-				})
-				.collect(Collectors.toList());
+		return vars;
 	}
 
 
 	public boolean startDeployment(UUID applicationId, int replicas) {
-		String finalNs = DEFAULT_NAMESPACE;
 		Application app = getApplication(applicationId);
-		if (!deploymentExists(app.getName())) {
+		Cluster cluster = clusterOf(app);
+		if (!deploymentExists(cluster, app.getNamespace(), app.getName())) {
 			return false;
 		}
-		kubernetesClient.apps().deployments()
-				.inNamespace(finalNs)
-				.withName(app.getName())
-				.scale(replicas);
+		scale(cluster, app.getNamespace(), app.getName(), replicas);
 		return true;
 	}
 
 	public boolean stopDeployment(UUID applicationId) {
 		Application app = getApplication(applicationId);
-		if (!deploymentExists(app.getName())) {
+		Cluster cluster = clusterOf(app);
+		if (!deploymentExists(cluster, app.getNamespace(), app.getName())) {
 			return false;
 		}
-		kubernetesClient.apps().deployments()
-				.inNamespace(DEFAULT_NAMESPACE)
-				.withName(app.getName())
-				.scale(0);
+		scale(cluster, app.getNamespace(), app.getName(), 0);
 		return true;
 	}
 
 	public boolean restartDeployment(UUID applicationId) {
 		Application app = getApplication(applicationId);
-		if (!deploymentExists(app.getName())) {
+		Cluster cluster = clusterOf(app);
+		if (!deploymentExists(cluster, app.getNamespace(), app.getName())) {
 			return false;
 		}
-		kubernetesClient.apps().deployments()
-				.inNamespace(DEFAULT_NAMESPACE)
-				.withName(app.getName())
-				.rolling()
-				.restart();
+		restart(cluster, app.getNamespace(), app.getName());
 		return true;
 	}
 
-	public void deployAllApplications() {
-		List<Application> applications = applicationRepository.findAll();
-		for (Application app : applications) {
-			createDeployment(app.getId());
+	private void scale(Cluster cluster, String namespace, String name, int replicas) {
+		scale(cluster, namespace, name, null, replicas);
+	}
+
+	// A merge patch of the replicas; given the live Deployment (e.g. from a list) it is a single
+	// request, otherwise fabric8 reads the Deployment first, like scale(int) does
+	private void scale(Cluster cluster, String namespace, String name, Deployment live, int replicas) {
+		String patch = "{\"spec\":{\"replicas\":" + replicas + "}}";
+		kubernetesApi.run(cluster, "scale", "deployment", () -> (live != null
+				? cluster.client().apps().deployments().resource(live)
+				: cluster.client().apps().deployments().inNamespace(namespace).withName(name))
+				.patch(PatchContext.of(PatchType.JSON_MERGE), patch));
+	}
+
+	private void restart(Cluster cluster, String namespace, String name) {
+		kubernetesApi.run(cluster, "restart", "deployment", () -> cluster.client().apps().deployments()
+				.inNamespace(namespace)
+				.withName(name)
+				.rolling()
+				.restart());
+	}
+
+	private void delete(Cluster cluster, String namespace, String name) {
+		kubernetesApi.run(cluster, "delete", "deployment", () -> cluster.client().apps().deployments()
+				.inNamespace(namespace)
+				.withName(name)
+				.delete());
+	}
+
+	/**
+	 * Applies one lifecycle action to many applications: blueprints are loaded with a single query,
+	 * existence is checked against one deployment list per cluster and namespace, and the mutations
+	 * fan out over the bounded deployment executor.
+	 */
+	public List<DeploymentResult> bulkAction(BulkActionRequest request) {
+		return KubernetesApiCalls.inBackground(() -> applyBulkAction(request));
+	}
+
+	private List<DeploymentResult> applyBulkAction(BulkActionRequest request) {
+		if (request.getAction() == null) {
+			throw new IllegalArgumentException("Bulk action must be provided");
 		}
+		int replicas = request.getReplicas() != null ? request.getReplicas() : 1;
+		if (request.getAction() == BulkAction.START && replicas < 0) {
+			throw new IllegalArgumentException("Replicas must be >= 0");
+		}
+		boolean byId = request.getApplicationIds() != null && !request.getApplicationIds().isEmpty();
+		boolean bySelector = request.getNameSelector() != null && !request.getNameSelector().isBlank();
+		if (!byId && !bySelector) {
+			throw new IllegalArgumentException("Application IDs or a name selector must be provided");
+		}
+
+		List<DeploymentResult> results = new ArrayList<>();
+		List<Application> apps;
+		if (byId) {
+			apps = applicationRepository.findAllById(request.getApplicationIds());
+			Set<UUID> found = apps.stream().map(Application::getId).collect(Collectors.toSet());
+			for (UUID id : new LinkedHashSet<>(request.getApplicationIds())) {
+				if (!found.contains(id)) {
+					results.add(new DeploymentResult(id, null, DeploymentOutcome.NOT_FOUND, "Application not found", 0));
+				}
+			}
+		} else {
+			apps = applicationRepository.findAll();
+		}
+		if (bySelector) {
+			Pattern selector = globToPattern(request.getNameSelector());
+			apps = apps.stream().filter(app -> selector.matcher(app.getName()).matches()).toList();
+		}
+		if (apps.isEmpty()) {
+			return results;
+		}
+
+		results.addAll(runPerApplication(apps, (cluster, app, live) ->
+				applyAction(cluster, app, request.getAction(), replicas, live)));
+		return results;
 	}
 
-	public List<ActiveDeploymentResponse> listDeployments() {
-		String finalNs = DEFAULT_NAMESPACE;
+	private DeploymentResult applyAction(Cluster cluster, Application app, BulkAction action, int replicas, Deployment live) {
+		long started = System.nanoTime();
+		if (live == null) {
+			return new DeploymentResult(app.getId(), app.getName(), DeploymentOutcome.NOT_FOUND, "Deployment not found", 0);
+		}
+		DeploymentOutcome outcome = DeploymentOutcome.SUCCEEDED;
+		String message = null;
+		try {
+			switch (action) {
+				case START -> scale(cluster, app.getNamespace(), app.getName(), live, replicas);
+				case STOP -> scale(cluster, app.getNamespace(), app.getName(), live, 0);
+				case RESTART -> restart(cluster, app.getNamespace(), app.getName());
+				case DELETE -> delete(cluster, app.getNamespace(), app.getName());
+			}
+		} catch (Exception e) {
+			outcome = DeploymentOutcome.FAILED;
+			message = e.getMessage();
+			System.out.println("Bulk " + action + " failed for application: " + app.getName() + " (" + message + ")");
+		}
+		return new DeploymentResult(app.getId(), app.getName(), outcome, message,
+				Duration.ofNanos(System.nanoTime() - started).toMillis());
+	}
 
-		List<Deployment> deployments = kubernetesClient.apps().deployments()
-				.inNamespace(finalNs)
-				.list()
-				.getItems();
+	// Name selectors are globs where '*' matches any run of characters, e.g. "team-a-*"
+	private static Pattern globToPattern(String glob) {
+		StringBuilder regex = new StringBuilder();
+		for (String part : glob.split("\\*", -1)) {
+			if (!regex.isEmpty()) regex.append(".*");
+			regex.append(Pattern.quote(part));
+		}
+		return Pattern.compile(regex.toString());
+	}
+
+	public List<DeploymentResult> deployAllApplications() {
+		return KubernetesApiCalls.inBackground(this::deployAll);
+	}
 
-		if (deployments == null || deployments.isEmpty()) {
+	private List<DeploymentResult> deployAll() {
+		List<Application> applications = applicationRepository.findAll();
+		if (applications.isEmpty()) {
 			return Collections.emptyList();
 		}
+		return runPerApplication(applications, this::deployWithResult);
+	}
 
-		return deployments.stream()
-				.map(d -> {
-					String name = (d.getMetadata() != null) ? d.getMetadata().getName() : null;
-					Container container = (d.getSpec() != null
-							&& d.getSpec().getTemplate() != null
-							&& d.getSpec().getTemplate().getSpec() != null
-							&& d.getSpec().getTemplate().getSpec().getContainers() != null
-							&& !d.getSpec().getTemplate().getSpec().getContainers().isEmpty())
-							? d.getSpec().getTemplate().getSpec().getContainers().get(0)
-							: null;
-
-					String image = (container != null) ? container.getImage() : null;
-					int containerPort = (container != null
-							&& container.getPorts() != null
-							&& !container.getPorts().isEmpty()
-							&& container.getPorts().get(0).getContainerPort() != null)
-							? container.getPorts().get(0).getContainerPort()
-							: 0;
+	@FunctionalInterface
+	private interface ApplicationTask {
+		DeploymentResult apply(Cluster cluster, Application app, Deployment live);
+	}
 
-					int specReplicas = (d.getSpec() != null && d.getSpec().getReplicas() != null)
-							? d.getSpec().getReplicas()
-							: 0;
-					int readyReplicas = (d.getStatus() != null && d.getStatus().getReadyReplicas() != null)
-							? d.getStatus().getReadyReplicas()
-							: 0;
-					int availableReplicas = (d.getStatus() != null && d.getStatus().getAvailableReplicas() != null)
-							? d.getStatus().getAvailableReplicas()
-							: 0;
-					int updatedReplicas = (d.getStatus() != null && d.getStatus().getUpdatedReplicas() != null)
-							? d.getStatus().getUpdatedReplicas()
-							: 0;
-					boolean serviceEnabled = (name != null)
-							&& kubernetesClient.services().inNamespace(finalNs).withName(name).get() != null;
+	/**
+	 * Runs a task per application on the deployment executor, handing it the live Deployment found
+	 * by one list per cluster and namespace. Applications on a cluster that cannot be listed fail
+	 * without affecting the rest.
+	 */
+	private List<DeploymentResult> runPerApplication(List<Application> apps, ApplicationTask task) {
+		List<DeploymentResult> results = new ArrayList<>();
+		List<CompletableFuture<DeploymentResult>> pending = new ArrayList<>();
+		for (Map.Entry<String, List<Application>> group : byCluster(apps).entrySet()) {
+			Cluster cluster;
+			Map<String, Deployment> live;
+			try {
+				cluster = clusters.get(group.getKey());
+				live = fetchDeploymentsByName(cluster, namespacesOf(group.getValue()));
+			} catch (RuntimeException e) {
+				System.out.println("Cluster " + group.getKey() + " unavailable: " + e.getMessage());
+				for (Application app : group.getValue()) {
+					results.add(new DeploymentResult(app.getId(), app.getName(), DeploymentOutcome.FAILED,
+							"Cluster " + group.getKey() + " unavailable: " + e.getMessage(), 0));
+				}
+				continue;
+			}
+			for (Application app : group.getValue()) {
+				Deployment existing = live.get(qualifiedName(app));
+				pending.add(CompletableFuture.supplyAsync(
+						KubernetesApiCalls.propagate(() -> task.apply(cluster, app, existing)),
+						deploymentExecutor));
+			}
+		}
+		pending.forEach(f -> results.add(f.join()));
+		return results;
+	}
 
-					return new ActiveDeploymentResponse(
-							name,
-							image,
-							specReplicas,
-							containerPort,
-							serviceEnabled,
-							true,
-							specReplicas,
-							readyReplicas,
-							availableReplicas,
-							updatedReplicas
-					);
-				})
+	private DeploymentResult deployWithResult(Cluster cluster, Application app, Deployment live) {
+		long started = System.nanoTime();
+		DeploymentOutcome outcome;
+		String message = null;
+		try {
+			outcome = createDeployment(cluster, app, live);
+		} catch (Exception e) {
+			outcome = DeploymentOutcome.FAILED;
+			message = e.getMessage();
+			System.out.println("Deployment failed for application: " + app.getName() + " (" + message + ")");
+		}
+		return new DeploymentResult(
+				app.getId(),
+				app.getName(),
+				outcome,
+				message,
+				Duration.ofNanos(System.nanoTime() - started).toMillis()
+		);
+	}
+
+	// Lists the app-labelled deployments of every cluster and namespace a blueprint targets
+	public ClusterRegistry.FanOut<ActiveDeploymentResponse> listDeployments() {
+		Map<String, Set<String>> namespaces = namespacesByCluster();
+		return clusters.fanOut(cluster -> {
+			List<ActiveDeploymentResponse> responses = new ArrayList<>();
+			for (String namespace : namespaces.getOrDefault(cluster.name(), Set.of())) {
+				List<Deployment> deployments = fetchDeployments(cluster, namespace);
+				if (!deployments.isEmpty()) {
+					responses.addAll(toDeploymentResponses(cluster.name(), deployments, fetchServiceNames(cluster, namespace)));
+				}
+			}
+			return responses;
+		});
+	}
+
+	/**
+	 * Version of what {@link #listDeployments()} returns, built from the list resourceVersion of
+	 * every namespace it reads: from the informers when synced, otherwise from a one-item LIST.
+	 * Null when a cluster does not answer, so an unknown list is never reported unchanged.
+	 */
+	public String deploymentsVersion() {
+		Map<String, List<Application>> byCluster = byCluster(blueprintCache.findAll());
+		ClusterRegistry.FanOut<String> versions = clusters.fanOut(cluster ->
+				namespacesOf(byCluster.getOrDefault(cluster.name(), List.of())).stream()
+						.map(namespace -> cluster.name() + "/" + namespace + "@" + listVersion(cluster, namespace))
+						.toList());
+		return versions.failures().isEmpty() ? String.join(";", versions.items()) : null;
+	}
+
+	private String listVersion(Cluster cluster, String namespace) {
+		Optional<DeploymentCache.NamespaceView> cached = cluster.cache().synced(namespace);
+		if (cached.isPresent()) {
+			return cached.get().resourceVersion();
+		}
+		ListOptions one = new ListOptionsBuilder().withLimit(1L).build();
+		String deployments = kubernetesApi.call(cluster, "list", "deployment", () -> cluster.client().apps().deployments()
+				.inNamespace(namespace).withLabel("app").list(one).getMetadata().getResourceVersion());
+		String services = kubernetesApi.call(cluster, "list", "service", () -> cluster.client().services()
+				.inNamespace(namespace).withLabel("app").list(one).getMetadata().getResourceVersion());
+		return deployments + "," + services;
+	}
+
+	static List<ActiveDeploymentResponse> toDeploymentResponses(String cluster, List<Deployment> deployments, Set<String> serviceNames) {
+		return deployments.stream()
+				.map(d -> toDeploymentResponse(cluster, d, d.getMetadata() != null && serviceNames.contains(qualifiedName(d))))
 				.collect(Collectors.toList());
 	}
 
-	public List<ActiveDeploymentResponse> listActiveDeploymentsWithDbInfo() {
-		String finalNs = DEFAULT_NAMESPACE;
+	static ActiveDeploymentResponse toDeploymentResponse(String cluster, Deployment d, boolean serviceEnabled) {
+		String name = (d.getMetadata() != null) ? d.getMetadata().getName() : null;
+		String namespace = (d.getMetadata() != null) ? d.getMetadata().getNamespace() : null;
+		Container container = (d.getSpec() != null
+				&& d.getSpec().getTemplate() != null
+				&& d.getSpec().getTemplate().getSpec() != null
+				&& d.getSpec().getTemplate().getSpec().getContainers() != null
+				&& !d.getSpec().getTemplate().getSpec().getContainers().isEmpty())
+				? d.getSpec().getTemplate().getSpec().getContainers().get(0)
+				: null;
+
+		String image = (container != null) ? container.getImage() : null;
+		int containerPort = (container != null
+				&& container.getPorts() != null
+				&& !container.getPorts().isEmpty()
+				&& container.getPorts().get(0).getContainerPort() != null)
+				? container.getPorts().get(0).getContainerPort()
+				: 0;
+
+		int specReplicas = (d.getSpec() != null && d.getSpec().getReplicas() != null)
+				? d.getSpec().getReplicas()
+				: 0;
+		int readyReplicas = (d.getStatus() != null && d.getStatus().getReadyReplicas() != null)
+				? d.getStatus().getReadyReplicas()
+				: 0;
+		int availableReplicas = (d.getStatus() != null && d.getStatus().getAvailableReplicas() != null)
+				? d.getStatus().getAvailableReplicas()
+				: 0;
+		int updatedReplicas = (d.getStatus() != null && d.getStatus().getUpdatedReplicas() != null)
+				? d.getStatus().getUpdatedReplicas()
+				: 0;
+
+		return new ActiveDeploymentResponse(
+				name,
+				namespace,
+				cluster,
+				image,
+				specReplicas,
+				containerPort,
+				name != null && serviceEnabled,
+				true,
+				specReplicas,
+				readyReplicas,
+				availableReplicas,
+				updatedReplicas
+		);
+	}
+
+	public ClusterRegistry.FanOut<ActiveDeploymentResponse> listActiveDeploymentsWithDbInfo() {
 		List<Application> apps = applicationRepository.findAll();
+		if (apps.isEmpty()) {
+			return new ClusterRegistry.FanOut<>(Collections.emptyList(), Map.of());
+		}
+
+		Map<String, List<Application>> byCluster = byCluster(apps);
+		return clusters.fanOut(cluster -> {
+			List<Application> mine = byCluster.getOrDefault(cluster.name(), List.of());
+			return mine.isEmpty()
+					? List.of()
+					: joinActive(cluster.name(), mine, fetchDeploymentsByName(cluster, namespacesOf(mine)));
+		});
+	}
 
+	// All apps belong to the given cluster; deploymentsByName is keyed by qualifiedName, i.e. "namespace/name"
+	static List<ActiveDeploymentResponse> joinActive(String cluster, List<Application> apps, Map<String, Deployment> deploymentsByName) {
 		return apps.stream()
 				.map(app -> {
-					Deployment d = kubernetesClient.apps().deployments()
-							.inNamespace(finalNs)
-							.withName(app.getName())
-							.get();
+					Deployment d = deploymentsByName.get(qualifiedName(app));
 					if (d == null) return null;
 
 					int specReplicas = (d.getSpec() != null && d.getSpec().getReplicas() != null)
@@ -304,6 +629,8 @@ public class DeploymentService {
 					// NOTE: Adjust this constructor if your ApplicationResponse has a different shape.
 					return new ActiveDeploymentResponse(
 							app.getName(),
+							app.getNamespace(),
+							cluster,
 							app.getImage(),
 							app.getDesiredReplicas(),
 							app.getContainerPort(),
@@ -319,24 +646,242 @@ public class DeploymentService {
 				.collect(Collectors.toList());
 	}
 
+	public ClusterRegistry.FanOut<DriftResponse> listDrift() {
+		List<Application> apps = applicationRepository.findAll();
+		if (apps.isEmpty()) {
+			return new ClusterRegistry.FanOut<>(Collections.emptyList(), Map.of());
+		}
+
+		Map<String, List<Application>> byCluster = byCluster(apps);
+		return clusters.fanOut(cluster -> {
+			List<Application> mine = byCluster.getOrDefault(cluster.name(), List.of());
+			return mine.isEmpty() ? List.of() : drift(mine, fetchDeploymentsByName(cluster, namespacesOf(mine)));
+		});
+	}
+
+	private static List<DriftResponse> drift(List<Application> apps, Map<String, Deployment> deploymentsByName) {
+		List<DriftResponse> drifted = new ArrayList<>();
+		for (Application app : apps) {
+			Deployment live = deploymentsByName.get(qualifiedName(app));
+			if (live == null) continue;
+
+			String desiredHash;
+			try {
+				desiredHash = SpecHash.annotation(buildDeployment(app));
+			} catch (Exception e) {
+				desiredHash = null;
+			}
+			String liveHash = SpecHash.annotation(live);
+			if (desiredHash == null || !desiredHash.equals(liveHash)) {
+				drifted.add(new DriftResponse(app.getId(), app.getName(), desiredHash, liveHash));
+			}
+		}
+		return drifted;
+	}
+
+	// One LIST per kind, selected on the app label every console-managed object carries
+	private List<Deployment> fetchDeployments(Cluster cluster, String namespace) {
+		Optional<DeploymentCache.NamespaceView> cached = cluster.cache().synced(namespace);
+		if (cached.isPresent()) {
+			return cached.get().deployments();
+		}
+		return kubernetesApi.call(cluster, "list", "deployment", () -> cluster.client().apps().deployments()
+				.inNamespace(namespace)
+				.withLabel("app")
+				.list()
+				.getItems());
+	}
+
+	// Keyed by qualifiedName; one list per namespace
+	private Map<String, Deployment> fetchDeploymentsByName(Cluster cluster, Set<String> namespaces) {
+		Map<String, Deployment> byName = new HashMap<>();
+		for (String namespace : namespaces) {
+			for (Deployment d : fetchDeployments(cluster, namespace)) {
+				if (d.getMetadata() != null && d.getMetadata().getName() != null) {
+					byName.put(qualifiedName(namespace, d.getMetadata().getName()), d);
+				}
+			}
+		}
+		return byName;
+	}
+
+	private static Set<String> namespacesOf(List<Application> apps) {
+		return apps.stream().map(Application::getNamespace).collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	// Blueprints without a cluster predate multi-cluster support and belong to the default cluster
+	private String clusterName(String cluster) {
+		return cluster != null ? cluster : clusters.defaultCluster();
+	}
+
+	private Cluster clusterOf(Application app) {
+		return clusters.get(clusterName(app.getCluster()));
+	}
+
+	private Map<String, List<Application>> byCluster(List<Application> apps) {
+		return apps.stream().collect(Collectors.groupingBy(app -> clusterName(app.getCluster()), TreeMap::new, Collectors.toList()));
+	}
+
+	private Map<String, Set<String>> namespacesByCluster() {
+		Map<String, Set<String>> namespaces = new HashMap<>();
+		for (ClusterNamespace cn : applicationRepository.findDistinctClusterNamespaces()) {
+			namespaces.computeIfAbsent(clusterName(cn.cluster()), k -> new TreeSet<>()).add(cn.namespace());
+		}
+		return namespaces;
+	}
+
+	// "namespace/name", the same key informer stores use
+	static String qualifiedName(String namespace, String name) {
+		return namespace + "/" + name;
+	}
+
+	static String qualifiedName(Application app) {
+		return qualifiedName(app.getNamespace(), app.getName());
+	}
+
+	static String qualifiedName(HasMetadata resource) {
+		return qualifiedName(resource.getMetadata().getNamespace(), resource.getMetadata().getName());
+	}
+
+	private Set<String> fetchServiceNames(Cluster cluster, String namespace) {
+		Optional<DeploymentCache.NamespaceView> cached = cluster.cache().synced(namespace);
+		List<Service> services = cached.isPresent()
+				? cached.get().services()
+				: kubernetesApi.call(cluster, "list", "service", () -> cluster.client().services()
+				.inNamespace(namespace)
+				.withLabel("app")
+				.list()
+				.getItems());
+
+		return serviceNames(services);
+	}
+
+	// Keyed by qualifiedName
+	static Set<String> serviceNames(List<Service> services) {
+		Set<String> names = new HashSet<>();
+		for (Service svc : services) {
+			if (svc.getMetadata() != null && svc.getMetadata().getName() != null) {
+				names.add(qualifiedName(svc));
+			}
+		}
+		return names;
+	}
+
 	public boolean deleteDeployment(UUID applicationId) {
 		Application app = getApplication(applicationId);
-		if (!deploymentExists(app.getName())) {
+		Cluster cluster = clusterOf(app);
+		if (!deploymentExists(cluster, app.getNamespace(), app.getName())) {
 			return false;
 		}
-		kubernetesClient.apps().deployments()
-				.inNamespace(DEFAULT_NAMESPACE)
-				.withName(app.getName())
-				.delete();
+		delete(cluster, app.getNamespace(), app.getName());
 		return true;
 	}
 
-	private boolean deploymentExists(String name) {
-		String finalNs = DEFAULT_NAMESPACE;
-		return kubernetesClient.apps().deployments()
-				.inNamespace(finalNs)
+	/**
+	 * The application's pods, read from the pod informer's app index so the request costs no LIST;
+	 * empty when the application is unknown.
+	 */
+	public Optional<List<PodResponse>> listPods(UUID applicationId) {
+		return blueprintCache.findById(applicationId).map(app -> pods(clusterOf(app), app).stream()
+				.map(DeploymentService::toPodResponse)
+				.sorted(Comparator.comparing(PodResponse::getName))
+				.toList());
+	}
+
+	List<Pod> pods(Cluster cluster, Application app) {
+		String namespace = app.getNamespace();
+		Optional<DeploymentCache.NamespaceView> cached = cluster.cache().podsSynced(namespace);
+		if (cached.isPresent()) {
+			return cached.get().podsForApp(app.getName());
+		}
+		return kubernetesApi.call(cluster, "list", "pod", () -> cluster.client().pods()
+				.inNamespace(namespace)
+				.withLabel("app", app.getName())
+				.list()
+				.getItems());
+	}
+
+	static PodResponse toPodResponse(Pod pod) {
+		PodStatus status = pod.getStatus() != null ? pod.getStatus() : new PodStatus();
+		List<PodContainerResponse> containers = status.getContainerStatuses() == null
+				? List.of()
+				: status.getContainerStatuses().stream().map(DeploymentService::toContainerResponse).toList();
+		return PodResponse.builder()
+				.name(pod.getMetadata().getName())
+				.namespace(pod.getMetadata().getNamespace())
+				.phase(status.getPhase())
+				.ready(!containers.isEmpty() && containers.stream().allMatch(PodContainerResponse::isReady))
+				.restarts(containers.stream().mapToInt(PodContainerResponse::getRestartCount).sum())
+				.node(pod.getSpec() != null ? pod.getSpec().getNodeName() : null)
+				.podIp(status.getPodIP())
+				.startTime(status.getStartTime())
+				.containers(containers)
+				.build();
+	}
+
+	private static PodContainerResponse toContainerResponse(ContainerStatus cs) {
+		String state = null;
+		String reason = null;
+		if (cs.getState() != null) {
+			if (cs.getState().getRunning() != null) {
+				state = "running";
+			} else if (cs.getState().getWaiting() != null) {
+				state = "waiting";
+				reason = cs.getState().getWaiting().getReason();
+			} else if (cs.getState().getTerminated() != null) {
+				state = "terminated";
+				reason = cs.getState().getTerminated().getReason();
+			}
+		}
+		return PodContainerResponse.builder()
+				.name(cs.getName())
+				.image(cs.getImage())
+				.ready(Boolean.TRUE.equals(cs.getReady()))
+				.restartCount(cs.getRestartCount() != null ? cs.getRestartCount() : 0)
+				.state(state)
+				.reason(reason)
+				.build();
+	}
+
+	public List<CacheStatusResponse> cacheStatus() {
+		return clusters.all().stream()
+				.map(cluster -> new CacheStatusResponse(
+						cluster.name(),
+						cluster.cache().isEnabled(),
+						cluster.cache().isSynced(),
+						cluster.cache().deploymentCount(),
+						cluster.cache().serviceCount(),
+						cluster.cache().podCount(),
+						List.copyOf(cluster.cache().namespaces())))
+				.toList();
+	}
+
+	// Informers of a namespace whose last blueprint on that cluster is gone are stopped
+	@EventListener
+	public void onApplicationChanged(ApplicationChangedEvent event) {
+		if (event.getType() != ApplicationChangedEvent.Type.DELETED) {
+			return;
+		}
+		Map<String, Set<String>> namespaces = namespacesByCluster();
+		for (Cluster cluster : clusters.all()) {
+			if (cluster.cache().isEnabled()) {
+				cluster.cache().retainNamespaces(namespaces.getOrDefault(cluster.name(), Set.of()));
+			}
+		}
+	}
+
+	private Deployment getLiveDeployment(Cluster cluster, String namespace, String name) {
+		Optional<DeploymentCache.NamespaceView> cached = cluster.cache().synced(namespace);
+		if (cached.isPresent()) {
+			return cached.get().deployment(name);
+		}
+		return kubernetesApi.call(cluster, "get", "deployment", () -> cluster.client().apps().deployments()
+				.inNamespace(namespace)
 				.withName(name)
-				.get() != null;
+				.get());
+	}
 
+	private boolean deploymentExists(Cluster cluster, String namespace, String name) {
+		return getLiveDeployment(cluster, namespace, name) != null;
 	}
 }
@@ -0,0 +1,126 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.ClusterRegistry.Cluster;
+import com.jonathan.spring_boot.ClusterRegistry.FanOut;
+import com.jonathan.spring_boot.SnapshotCache.Snapshot;
+import com.jonathan.spring_boot.req_res.ActiveDeploymentResponse;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Shared snapshots behind {@code /api/deployment} and {@code /api/deployment/active}, so a burst
+ * of dashboard refreshes costs one cluster scan instead of one each (see {@link SnapshotCache}).
+ * Informer events and blueprint changes invalidate them. A cluster that fails a refresh keeps its
+ * rows from the previous snapshot and is still named in the failures.
+ */
+@Component
+public class DeploymentSnapshots {
+	private static final String DEPLOYMENTS = "deployments";
+	private static final String ACTIVE = "active";
+
+	/**
+	 * A snapshot's rows and the {@link DeploymentService#deploymentsVersion() version} they were
+	 * read at; null when unknown, e.g. for the active listing or when a cluster failed.
+	 */
+	public record Listing(String version, FanOut<ActiveDeploymentResponse> rows) {
+	}
+
+	private final DeploymentService deploymentService;
+	private final ClusterRegistry clusters;
+	private final MeterRegistry meterRegistry;
+	private final SnapshotCache<String, Listing> cache;
+
+	public DeploymentSnapshots(DeploymentService deploymentService, ClusterRegistry clusters,
+			ExecutorService snapshotExecutor, MeterRegistry meterRegistry, ConsoleProperties properties) {
+		this.deploymentService = deploymentService;
+		this.clusters = clusters;
+		this.meterRegistry = meterRegistry;
+		ConsoleProperties.Snapshots config = properties.getSnapshots();
+		this.cache = new SnapshotCache<>(config.getFreshFor(), config.getServeStaleFor(), config.getRefreshWait(),
+				snapshotExecutor, DeploymentSnapshots::merge);
+	}
+
+	@PostConstruct
+	public void start() {
+		clusters.all().forEach(this::watch);
+	}
+
+	// The version is read before the rows, so it is never newer than them
+	public Snapshot<Listing> deployments() {
+		return record(DEPLOYMENTS, cache.get(DEPLOYMENTS, () -> {
+			String version = deploymentService.deploymentsVersion();
+			return new Listing(version, deploymentService.listDeployments());
+		}));
+	}
+
+	public Snapshot<Listing> active() {
+		return record(ACTIVE, cache.get(ACTIVE, () -> new Listing(null, deploymentService.listActiveDeploymentsWithDbInfo())));
+	}
+
+	public String deploymentsVersion() {
+		return deploymentService.deploymentsVersion();
+	}
+
+	// /active joins blueprints onto live deployments
+	@EventListener
+	public void onApplicationChanged(ApplicationChangedEvent event) {
+		cache.invalidate();
+	}
+
+	// Services count too: they flip serviceEnabled on the listed deployments
+	private void watch(Cluster cluster) {
+		cluster.cache().addDeploymentHandler(invalidating());
+		cluster.cache().addServiceHandler(invalidating());
+	}
+
+	private <T> ResourceEventHandler<T> invalidating() {
+		return new ResourceEventHandler<>() {
+			@Override
+			public void onAdd(T obj) {
+				cache.invalidate();
+			}
+
+			@Override
+			public void onUpdate(T oldObj, T newObj) {
+				cache.invalidate();
+			}
+
+			@Override
+			public void onDelete(T obj, boolean deletedFinalStateUnknown) {
+				cache.invalidate();
+			}
+		};
+	}
+
+	private Snapshot<Listing> record(String list, Snapshot<Listing> snapshot) {
+		meterRegistry.counter("console.snapshots.served", "list", list, "stale", String.valueOf(snapshot.stale())).increment();
+		return snapshot;
+	}
+
+	// Rows kept from a failed cluster may be out of date, so the merged listing has no version
+	private static Listing merge(Listing previous, Listing loaded) {
+		if (loaded.rows().failures().isEmpty()) {
+			return loaded;
+		}
+		return new Listing(null, keepFailedClusters(previous.rows(), loaded.rows()));
+	}
+
+	static FanOut<ActiveDeploymentResponse> keepFailedClusters(FanOut<ActiveDeploymentResponse> previous,
+			FanOut<ActiveDeploymentResponse> loaded) {
+		if (loaded.failures().isEmpty()) {
+			return loaded;
+		}
+		List<ActiveDeploymentResponse> items = new ArrayList<>(loaded.items());
+		previous.items().stream()
+				.filter(item -> loaded.failures().containsKey(item.getCluster()))
+				.forEach(items::add);
+		return new FanOut<>(items, loaded.failures());
+	}
+}
@@ -0,0 +1,57 @@
+package com.jonathan.spring_boot;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the env jsonb column leniently. Rows written before env became a flat string map may hold
+ * an array, numbers and booleans, nulls or nested objects; one such row must not fail every query
+ * that loads it. Scalars are coerced to strings, nulls become empty strings, nested values are
+ * dropped and anything but a JSON object reads as no env at all, as getEnvVars used to treat them.
+ */
+@Converter
+public class EnvConverter implements AttributeConverter<Map<String, String>, String> {
+	private static final JsonMapper MAPPER = JsonMapper.builder().build();
+
+	@Override
+	public String convertToDatabaseColumn(Map<String, String> env) {
+		return env == null ? null : MAPPER.writeValueAsString(env);
+	}
+
+	@Override
+	public Map<String, String> convertToEntityAttribute(String json) {
+		return normalize(json);
+	}
+
+	static Map<String, String> normalize(String json) {
+		Map<String, String> env = new LinkedHashMap<>();
+		if (json == null) {
+			return env;
+		}
+		JsonNode node;
+		try {
+			node = MAPPER.readTree(json);
+		} catch (JacksonException e) {
+			System.out.println("Ignoring unreadable env of a stored blueprint: " + e.getOriginalMessage());
+			return env;
+		}
+		if (node == null || !node.isObject()) {
+			return env;
+		}
+		node.properties().forEach(entry -> {
+			JsonNode value = entry.getValue();
+			if (value.isContainer()) {
+				System.out.println("Dropping nested env value " + entry.getKey() + " of a stored blueprint");
+				return;
+			}
+			env.put(entry.getKey(), value.isNull() ? "" : value.asString());
+		});
+		return env;
+	}
+}
@@ -0,0 +1,53 @@
+package com.jonathan.spring_boot;
+
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executors for the console's blocking apiserver and database work. With
+ * {@code spring.threads.virtual.enabled} on Java 21 their threads are virtual, like Tomcat's
+ * request threads; the fixed pools keep their size, which is a concurrency limit, not a thread budget.
+ */
+@Configuration
+public class ExecutorConfig {
+
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService deploymentExecutor(ConsoleProperties properties, Environment environment) {
+		int concurrency = Math.max(1, properties.getDeploy().getConcurrency());
+		return Executors.newFixedThreadPool(concurrency, threads("deploy-", environment));
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService operationExecutor(ConsoleProperties properties, Environment environment) {
+		int workers = Math.max(1, properties.getOperations().getWorkers());
+		return Executors.newFixedThreadPool(workers, threads("operation-", environment));
+	}
+
+	// Log tails block on pod streams, one thread per pod; console.logs.max-sessions and max-pods bound it
+	@Bean(destroyMethod = "shutdownNow")
+	public ExecutorService logExecutor(Environment environment) {
+		return Executors.newCachedThreadPool(threads("log-", environment));
+	}
+
+	// Background refreshes of list snapshots; SnapshotCache runs at most one per list
+	@Bean(destroyMethod = "shutdownNow")
+	public ExecutorService snapshotExecutor(Environment environment) {
+		return Executors.newCachedThreadPool(threads("snapshot-", environment));
+	}
+
+	// Threading.VIRTUAL is only active on Java 21+, so older JVMs keep platform threads
+	static ThreadFactory threads(String prefix, Environment environment) {
+		if (Threading.VIRTUAL.isActive(environment)) {
+			return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+		}
+		return new CustomizableThreadFactory(prefix);
+	}
+}
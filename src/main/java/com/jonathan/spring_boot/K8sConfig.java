@@ -1,9 +1,17 @@
 package com.jonathan.spring_boot;
 
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.ConfigBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class K8sConfig {
@@ -13,5 +21,44 @@ public class K8sConfig {
 		return new KubernetesClientBuilder().build();
 	}
 
+	@Bean(destroyMethod = "close")
+	public ClusterRegistry clusterRegistry(KubernetesClient kubernetesClient, ConsoleProperties properties, Environment environment) {
+		ConsoleProperties.Kubernetes kubernetes = properties.getKubernetes();
+		List<ClusterRegistry.Cluster> clusters = new ArrayList<>();
+		clusters.add(new ClusterRegistry.Cluster(kubernetes.getClusterName(), kubernetesClient,
+				new DeploymentCache(kubernetesClient, properties),
+				new ApiRateLimiter(kubernetes.getQps(), kubernetes.getBurst()), kubernetes.getClusterTimeout(), false));
+
+		for (ConsoleProperties.Cluster cluster : kubernetes.getClusters()) {
+			KubernetesClient client = new KubernetesClientBuilder().withConfig(config(cluster)).build();
+			Duration timeout = cluster.getTimeout() != null ? cluster.getTimeout() : kubernetes.getClusterTimeout();
+			clusters.add(new ClusterRegistry.Cluster(cluster.getName(), client,
+					new DeploymentCache(client, properties), limiter(kubernetes, cluster), timeout, true));
+		}
+
+		// Fan-out reads block on remote apiservers; they get their own threads so a hung
+		// cluster cannot starve deploymentExecutor
+		return new ClusterRegistry(kubernetes.getClusterName(), clusters,
+				Executors.newCachedThreadPool(ExecutorConfig.threads("cluster-", environment)));
+	}
 
+	static ApiRateLimiter limiter(ConsoleProperties.Kubernetes kubernetes, ConsoleProperties.Cluster cluster) {
+		return new ApiRateLimiter(
+				cluster.getQps() != null ? cluster.getQps() : kubernetes.getQps(),
+				cluster.getBurst() != null ? cluster.getBurst() : kubernetes.getBurst());
+	}
+
+	private static Config config(ConsoleProperties.Cluster cluster) {
+		if (cluster.getName() == null || cluster.getName().isBlank()) {
+			throw new IllegalArgumentException("Every entry in console.kubernetes.clusters needs a name");
+		}
+		if (cluster.getContext() != null) {
+			return Config.autoConfigure(cluster.getContext());
+		}
+		if (cluster.getMasterUrl() != null) {
+			// Config.empty() so credentials of the default kubeconfig never leak to another cluster
+			return new ConfigBuilder(Config.empty()).withMasterUrl(cluster.getMasterUrl()).build();
+		}
+		throw new IllegalArgumentException("Cluster " + cluster.getName() + " needs a context or a master-url");
+	}
 }
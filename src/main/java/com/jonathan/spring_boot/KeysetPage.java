@@ -0,0 +1,7 @@
+package com.jonathan.spring_boot;
+
+import java.util.List;
+
+/** One page of a keyset-paginated list; {@code nextCursor} is null on the last page. */
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+}
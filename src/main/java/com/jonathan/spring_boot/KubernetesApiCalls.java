@@ -0,0 +1,142 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.ClusterRegistry.Cluster;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Single choke point for apiserver calls made on behalf of users. Every call passes its cluster's
+ * {@link ApiRateLimiter} in its caller's {@link Lane}, is timed as {@code console.kubernetes.requests}
+ * tagged by cluster, verb, resource kind and outcome, and is counted against the inbound HTTP request that
+ * triggered it (see {@link KubernetesCallsPerRequestFilter}).
+ */
+@Component
+public class KubernetesApiCalls {
+	static final String REQUEST_TIMER = "console.kubernetes.requests";
+	static final String LIMITER_TIMER = "console.kubernetes.limiter.wait";
+
+	/** Interactive calls pre-empt background ones at the limiter. Threads default to interactive. */
+	public enum Lane {
+		INTERACTIVE,
+		BACKGROUND
+	}
+
+	private static final ThreadLocal<AtomicInteger> REQUEST_SCOPE = new ThreadLocal<>();
+	private static final ThreadLocal<Lane> LANE = ThreadLocal.withInitial(() -> Lane.INTERACTIVE);
+
+	private final MeterRegistry meterRegistry;
+
+	public KubernetesApiCalls(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	public <T> T call(Cluster cluster, String verb, String kind, Supplier<T> operation) {
+		AtomicInteger scope = REQUEST_SCOPE.get();
+		if (scope != null) {
+			scope.incrementAndGet();
+		}
+		throttle(cluster);
+
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "success";
+		try {
+			return operation.get();
+		} catch (RuntimeException e) {
+			outcome = outcome(e);
+			throw e;
+		} finally {
+			sample.stop(Timer.builder(REQUEST_TIMER)
+					.description("Kubernetes API calls issued by the console")
+					.tag("cluster", cluster.name())
+					.tag("verb", verb)
+					.tag("kind", kind)
+					.tag("outcome", outcome)
+					.register(meterRegistry));
+		}
+	}
+
+	public void run(Cluster cluster, String verb, String kind, Runnable operation) {
+		call(cluster, verb, kind, () -> {
+			operation.run();
+			return null;
+		});
+	}
+
+	private void throttle(Cluster cluster) {
+		ApiRateLimiter limiter = cluster.limiter();
+		if (!limiter.isEnabled()) {
+			return;
+		}
+		Lane lane = LANE.get();
+		long waited;
+		try {
+			waited = limiter.acquire(lane);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the Kubernetes rate limiter", e);
+		}
+		Timer.builder(LIMITER_TIMER)
+				.description("Time Kubernetes API calls spent waiting for the client-side rate limiter")
+				.tag("cluster", cluster.name())
+				.tag("lane", lane.name().toLowerCase())
+				.register(meterRegistry)
+				.record(waited, TimeUnit.NANOSECONDS);
+	}
+
+	/** Runs the task with its apiserver calls (including ones it propagates) in the background lane. */
+	static <T> T inBackground(Supplier<T> task) {
+		Lane previous = LANE.get();
+		LANE.set(Lane.BACKGROUND);
+		try {
+			return task.get();
+		} finally {
+			LANE.set(previous);
+		}
+	}
+
+	static AtomicInteger openRequestScope() {
+		AtomicInteger scope = new AtomicInteger();
+		REQUEST_SCOPE.set(scope);
+		return scope;
+	}
+
+	static void closeRequestScope() {
+		REQUEST_SCOPE.remove();
+	}
+
+	// Carries the caller's request scope and lane onto an executor thread so fanned-out calls still count
+	static <T> Supplier<T> propagate(Supplier<T> task) {
+		AtomicInteger scope = REQUEST_SCOPE.get();
+		Lane lane = LANE.get();
+		return () -> {
+			AtomicInteger previousScope = REQUEST_SCOPE.get();
+			Lane previousLane = LANE.get();
+			REQUEST_SCOPE.set(scope);
+			LANE.set(lane);
+			try {
+				return task.get();
+			} finally {
+				REQUEST_SCOPE.set(previousScope);
+				LANE.set(previousLane);
+			}
+		};
+	}
+
+	private static String outcome(RuntimeException e) {
+		if (e instanceof KubernetesClientException kce) {
+			int code = kce.getCode();
+			if (code == 404) return "not_found";
+			if (code == 409) return "conflict";
+			if (code == 429) return "throttled";
+			if (code >= 500) return "server_error";
+			if (code >= 400) return "client_error";
+		}
+		return "error";
+	}
+}
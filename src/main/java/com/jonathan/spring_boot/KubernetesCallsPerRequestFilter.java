@@ -0,0 +1,45 @@
+package com.jonathan.spring_boot;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Records how many apiserver calls each /api request caused, keyed by the matched route. */
+@Component
+@RequiredArgsConstructor
+public class KubernetesCallsPerRequestFilter extends OncePerRequestFilter {
+	private final MeterRegistry meterRegistry;
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !request.getRequestURI().startsWith("/api/");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		AtomicInteger calls = KubernetesApiCalls.openRequestScope();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			KubernetesApiCalls.closeRequestScope();
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			DistributionSummary.builder("console.kubernetes.requests.per.http.request")
+					.description("Kubernetes API calls issued while serving one console HTTP request")
+					.tag("method", request.getMethod())
+					.tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+					.register(meterRegistry)
+					.record(calls.get());
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.jonathan.spring_boot;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Filters and keyset position of a list request, plus the conditional-GET helpers the list
+ * endpoints share. Without limit, cursor, name or image a request gets the whole list, as before;
+ * any of them makes it a page of at most {@code console.pagination.max-limit} rows. A cursor is
+ * the sort key of the last row of the previous page, base64url-encoded so it can be passed back
+ * as is.
+ *
+ * @param after      sort key to continue after; empty for the first page
+ * @param namePrefix rows whose name starts with this, or null for all
+ * @param imagePrefix rows whose image starts with this, or null for all
+ */
+public record ListQuery(boolean paged, String after, int limit, String namePrefix, String imagePrefix) {
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	public static ListQuery of(Integer limit, String cursor, String name, String image, ConsoleProperties.Pagination config) {
+		boolean paged = limit != null || cursor != null || name != null || image != null;
+		int size = limit != null ? limit : config.getDefaultLimit();
+		if (size < 1) {
+			throw new IllegalArgumentException("limit must be at least 1");
+		}
+		return new ListQuery(paged, decode(cursor), Math.min(size, config.getMaxLimit()), emptyToNull(name), emptyToNull(image));
+	}
+
+	public boolean matches(String name, String image) {
+		return (namePrefix == null || (name != null && name.startsWith(namePrefix)))
+				&& (imagePrefix == null || (image != null && image.startsWith(imagePrefix)));
+	}
+
+	/** Pages rows that are already in memory, in the order of {@code key}. */
+	public <T> KeysetPage<T> page(List<T> rows, Function<T, String> key, Predicate<T> filter) {
+		List<T> page = rows.stream()
+				.filter(row -> key.apply(row).compareTo(after) > 0)
+				.filter(filter)
+				.sorted(Comparator.comparing(key))
+				.limit(limit + 1L)
+				.toList();
+		return trim(page, key);
+	}
+
+	/** Turns up to {@code limit + 1} sorted rows into a page; the extra row only says there is more. */
+	public <T> KeysetPage<T> trim(List<T> rows, Function<T, String> key) {
+		if (rows.size() <= limit) {
+			return new KeysetPage<>(rows, null);
+		}
+		List<T> page = rows.subList(0, limit);
+		return new KeysetPage<>(page, encode(key.apply(page.get(page.size() - 1))));
+	}
+
+	/**
+	 * Weak ETag for this query over data at {@code version}. Derived from the version alone so an
+	 * unchanged list is answered without reading or serialising it.
+	 */
+	public String etag(String version) {
+		String input = String.join("\u0000", version, String.valueOf(paged), after, String.valueOf(limit),
+				String.valueOf(namePrefix), String.valueOf(imagePrefix));
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+			return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/** If-None-Match semantics for GET: weak comparison against each listed tag, or "*". */
+	public static boolean notModified(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null || etag == null) {
+			return false;
+		}
+		String opaque = stripWeak(etag);
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** SQL LIKE pattern matching values that start with {@code prefix}; '\' is the escape character. */
+	static String likePrefix(String prefix) {
+		if (prefix == null) {
+			return "%";
+		}
+		return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+	}
+
+	private static String stripWeak(String tag) {
+		return tag.startsWith("W/") ? tag.substring(2) : tag;
+	}
+
+	private static String decode(String cursor) {
+		if (cursor == null || cursor.isEmpty()) {
+			return "";
+		}
+		try {
+			return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		}
+	}
+
+	private static String encode(String key) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String emptyToNull(String value) {
+		return value == null || value.isEmpty() ? null : value;
+	}
+}
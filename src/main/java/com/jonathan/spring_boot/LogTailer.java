@@ -0,0 +1,347 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.ClusterRegistry.Cluster;
+import com.jonathan.spring_boot.req_res.LogLine;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.dsl.LogWatch;
+import io.fabric8.kubernetes.client.dsl.PrettyLoggable;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tails the logs of every pod of an application into one SSE stream. Each pod is read on its own
+ * thread into a bounded queue; a single writer drains the queues round-robin into the response.
+ * The writer blocks on a slow client, the queues fill up, and from then on readers drop lines and
+ * count them rather than buffer, so memory per tail is bounded by
+ * {@code max-pods * buffer-lines * max-line-length} no matter how noisy the application is.
+ * The pod set is fixed when the tail starts; once every pod's stream has ended the response ends
+ * and an EventSource reconnects onto the current pods. An application with no pods gets an empty
+ * {@code pods} event and heartbeats until the timeout, since ending at once would have the
+ * EventSource reconnect in a tight loop.
+ */
+@Component
+@RequiredArgsConstructor
+public class LogTailer {
+	private final ApplicationRepository applicationRepository;
+	private final ClusterRegistry clusters;
+	private final DeploymentService deploymentService;
+	private final ExecutorService logExecutor;
+	private final KubernetesApiCalls kubernetesApi;
+	private final ConsoleProperties properties;
+
+	private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+	// Slots taken by reserve(); counted apart from sessions so the check and the take are one step
+	private final AtomicInteger slots = new AtomicInteger();
+
+	/** Where a tail's output goes; a call may block, which is what throttles the readers. */
+	interface LogSink {
+		void pods(List<String> pods) throws IOException;
+
+		void line(String pod, String line) throws IOException;
+
+		void dropped(String pod, long count) throws IOException;
+
+		void heartbeat() throws IOException;
+	}
+
+	@PreDestroy
+	public void stop() {
+		sessions.forEach(Session::close);
+	}
+
+	/** Takes one of the max-sessions slots for {@link #stream}; false when they are all in use. */
+	public boolean reserve() {
+		int max = properties.getLogs().getMaxSessions();
+		int taken;
+		do {
+			taken = slots.get();
+			if (taken >= max) {
+				return false;
+			}
+		} while (!slots.compareAndSet(taken, taken + 1));
+		return true;
+	}
+
+	private void release() {
+		slots.decrementAndGet();
+	}
+
+	/**
+	 * Tails the application in a slot taken by {@link #reserve()}; the session gives the slot back
+	 * when it closes. Empty, with the slot given back, when the application is unknown.
+	 */
+	public Optional<SseEmitter> stream(UUID applicationId, Integer tailLines, boolean follow) {
+		Session session = null;
+		try {
+			Application app = applicationRepository.findById(applicationId).orElse(null);
+			if (app == null) {
+				return Optional.empty();
+			}
+			SseEmitter emitter = new SseEmitter(properties.getLogs().getTimeout().toMillis());
+			session = open(app, tailLines, follow, new SseSink(emitter), true);
+			Session opened = session;
+			emitter.onCompletion(opened::close);
+			emitter.onTimeout(opened::close);
+			emitter.onError(e -> opened.close());
+			try {
+				logExecutor.execute(() -> {
+					try {
+						opened.run();
+						emitter.complete();
+					} catch (IOException | IllegalStateException e) {
+						// the client went away; onCompletion/onError close the session
+						emitter.completeWithError(e);
+					} finally {
+						opened.close();
+					}
+				});
+			} catch (RuntimeException e) {
+				opened.close();
+				throw e;
+			}
+			return Optional.of(emitter);
+		} finally {
+			if (session == null) {
+				release();
+			}
+		}
+	}
+
+	/** Opens one reader per pod (up to max-pods); {@link Session#run()} then writes to {@code sink}. */
+	Session open(Application app, Integer tailLines, boolean follow, LogSink sink) {
+		return open(app, tailLines, follow, sink, false);
+	}
+
+	private Session open(Application app, Integer tailLines, boolean follow, LogSink sink, boolean holdsSlot) {
+		ConsoleProperties.Logs config = properties.getLogs();
+		int lines = Math.max(0, Math.min(tailLines != null ? tailLines : config.getTailLines(), config.getMaxTailLines()));
+		Cluster cluster = clusters.get(app.getCluster());
+		List<Pod> pods = deploymentService.pods(cluster, app).stream()
+				.filter(pod -> pod.getSpec() != null && pod.getSpec().getContainers() != null && !pod.getSpec().getContainers().isEmpty())
+				.sorted(Comparator.comparing(pod -> pod.getMetadata().getName()))
+				.limit(Math.max(1, config.getMaxPods()))
+				.toList();
+
+		Session session = new Session(sink, config.getMaxLineLength(), properties.getStream().getHeartbeat().toMillis(), holdsSlot);
+		for (Pod pod : pods) {
+			session.sources.add(new Source(pod.getMetadata().getName(), config.getBufferLines()));
+		}
+		sessions.add(session);
+		for (int i = 0; i < pods.size(); i++) {
+			Pod pod = pods.get(i);
+			Source source = session.sources.get(i);
+			PrettyLoggable loggable = cluster.client().pods()
+					.inNamespace(app.getNamespace())
+					.withName(source.pod)
+					// blueprint pods have one container; sidecars injected later are skipped
+					.inContainer(pod.getSpec().getContainers().get(0).getName())
+					// crash-looping pods never turn ready and are the ones worth reading
+					.withReadyWaitTimeout(0)
+					.tailingLines(lines);
+			logExecutor.execute(() -> session.read(cluster, source, loggable, follow));
+		}
+		return session;
+	}
+
+	final class Session {
+		private final List<Source> sources = new ArrayList<>();
+		private final LogSink sink;
+		private final int maxLineLength;
+		private final long heartbeatMillis;
+		// Released whenever a reader queues a line or finishes; only ever used to wake the writer
+		private final Semaphore ready = new Semaphore(0);
+		private final boolean holdsSlot;
+		private volatile boolean closed;
+
+		private Session(LogSink sink, int maxLineLength, long heartbeatMillis, boolean holdsSlot) {
+			this.sink = sink;
+			this.maxLineLength = maxLineLength;
+			this.heartbeatMillis = heartbeatMillis;
+			this.holdsSlot = holdsSlot;
+		}
+
+		/**
+		 * Writes queued lines until every pod's stream has ended or the session is closed; with no
+		 * pods only closing ends it.
+		 */
+		void run() throws IOException {
+			sink.pods(sources.stream().map(source -> source.pod).toList());
+			while (!closed) {
+				boolean wrote = false;
+				boolean progressed = true;
+				while (progressed && !closed) {
+					progressed = false;
+					for (Source source : sources) {
+						long dropped = source.dropped.getAndSet(0);
+						if (dropped > 0) {
+							sink.dropped(source.pod, dropped);
+						}
+						String line = source.queue.poll();
+						if (line != null) {
+							sink.line(source.pod, line);
+							progressed = true;
+							wrote = true;
+						}
+					}
+				}
+				if (!sources.isEmpty() && sources.stream().allMatch(source -> source.finished && source.queue.isEmpty())) {
+					return;
+				}
+				try {
+					if (!ready.tryAcquire(heartbeatMillis, TimeUnit.MILLISECONDS) && !wrote) {
+						sink.heartbeat();
+					}
+					ready.drainPermits();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+
+		private void read(Cluster cluster, Source source, PrettyLoggable loggable, boolean follow) {
+			try {
+				InputStream in;
+				if (follow) {
+					LogWatch watch = kubernetesApi.call(cluster, "watch", "pod/log", loggable::watchLog);
+					source.handle = watch;
+					in = watch.getOutput();
+				} else {
+					in = kubernetesApi.call(cluster, "get", "pod/log", loggable::getLogInputStream);
+					source.handle = in;
+				}
+				if (closed) {
+					source.handle.close();
+					return;
+				}
+				try (InputStream stream = new BufferedInputStream(in)) {
+					String line;
+					while (!closed && (line = readLine(stream, maxLineLength)) != null) {
+						if (source.queue.offer(line)) {
+							ready.release();
+						} else {
+							source.dropped.incrementAndGet();
+						}
+					}
+				}
+			} catch (Exception e) {
+				if (!closed) {
+					System.out.println("Log stream for pod " + source.pod + " ended: " + e.getMessage());
+				}
+			} finally {
+				source.finished = true;
+				ready.release();
+			}
+		}
+
+		void close() {
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				closed = true;
+			}
+			sessions.remove(this);
+			if (holdsSlot) {
+				release();
+			}
+			for (Source source : sources) {
+				Closeable handle = source.handle;
+				if (handle != null) {
+					try {
+						handle.close();
+					} catch (IOException | RuntimeException ignored) {
+					}
+				}
+			}
+			ready.release();
+		}
+	}
+
+	private static final class Source {
+		private final String pod;
+		private final BlockingQueue<String> queue;
+		private final AtomicLong dropped = new AtomicLong();
+		private volatile Closeable handle;
+		private volatile boolean finished;
+
+		private Source(String pod, int capacity) {
+			this.pod = pod;
+			this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+		}
+	}
+
+	// Reads up to '\n', keeping at most maxLength bytes of the line; null at end of stream
+	static String readLine(InputStream in, int maxLength) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream(Math.min(maxLength, 256));
+		boolean truncated = false;
+		int b;
+		while ((b = in.read()) != -1 && b != '\n') {
+			if (line.size() < maxLength) {
+				line.write(b);
+			} else {
+				truncated = true;
+			}
+		}
+		if (b == -1 && line.size() == 0 && !truncated) {
+			return null;
+		}
+		String text = line.toString(StandardCharsets.UTF_8);
+		if (text.endsWith("\r")) {
+			text = text.substring(0, text.length() - 1);
+		}
+		return truncated ? text + " [truncated]" : text;
+	}
+
+	private static final class SseSink implements LogSink {
+		private final SseEmitter emitter;
+
+		private SseSink(SseEmitter emitter) {
+			this.emitter = emitter;
+		}
+
+		@Override
+		public void pods(List<String> pods) throws IOException {
+			emitter.send(SseEmitter.event().name("pods").data(pods, MediaType.APPLICATION_JSON));
+		}
+
+		@Override
+		public void line(String pod, String line) throws IOException {
+			emitter.send(SseEmitter.event().name("log").data(new LogLine(pod, line, 0), MediaType.APPLICATION_JSON));
+		}
+
+		@Override
+		public void dropped(String pod, long count) throws IOException {
+			emitter.send(SseEmitter.event().name("dropped").data(new LogLine(pod, null, count), MediaType.APPLICATION_JSON));
+		}
+
+		@Override
+		public void heartbeat() throws IOException {
+			emitter.send(SseEmitter.event().comment("heartbeat"));
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.OperationResponse;
+import com.jonathan.spring_boot.req_res.OperationStatus;
+import com.jonathan.spring_boot.req_res.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs mutating deployment actions off the request thread. Operations for the same application
+ * execute one at a time in submission order; a queued operation is superseded by a newer one of
+ * the same type, so a burst of scale clicks ends in a single scale call to the latest target.
+ * Operations are held in this replica's memory only; with several replicas the Service must route
+ * a client back to the one that accepted its operation (see app-deploy.yml).
+ */
+@Component
+@RequiredArgsConstructor
+public class OperationQueue {
+	private final DeploymentService deploymentService;
+	private final ExecutorService operationExecutor;
+	private final ConsoleProperties properties;
+	private final MeterRegistry meterRegistry;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Map<UUID, Deque<Operation>> pendingByApp = new HashMap<>();
+	private final Map<UUID, Operation> operations = new ConcurrentHashMap<>();
+
+	public OperationResponse scale(UUID applicationId, int replicas) {
+		Operation op = new Operation(applicationId, OperationType.SCALE);
+		op.replicas = replicas;
+		return submit(op);
+	}
+
+	public OperationResponse restart(UUID applicationId) {
+		return submit(new Operation(applicationId, OperationType.RESTART));
+	}
+
+	public OperationResponse expose(UUID applicationId, String serviceType) {
+		Operation op = new Operation(applicationId, OperationType.EXPOSE);
+		op.serviceType = serviceType;
+		return submit(op);
+	}
+
+	public Optional<OperationResponse> get(UUID operationId) {
+		Operation op = operations.get(operationId);
+		return op == null ? Optional.empty() : Optional.of(snapshot(op));
+	}
+
+	/** Completes once the operation has finished (or been superseded); empty if it is unknown. */
+	public Optional<CompletableFuture<OperationResponse>> completion(UUID operationId) {
+		Operation op = operations.get(operationId);
+		return op == null ? Optional.empty() : Optional.of(op.done.thenApply(ignored -> snapshot(op)));
+	}
+
+	private OperationResponse submit(Operation op) {
+		evictFinished();
+		operations.put(op.id, op);
+
+		boolean startDrain;
+		lock.lock();
+		try {
+			Deque<Operation> pending = pendingByApp.get(op.applicationId);
+			startDrain = pending == null;
+			if (pending == null) {
+				pending = new ArrayDeque<>();
+				pendingByApp.put(op.applicationId, pending);
+			}
+			for (Iterator<Operation> it = pending.iterator(); it.hasNext(); ) {
+				Operation queued = it.next();
+				if (queued.type == op.type) {
+					it.remove();
+					queued.supersededBy = op.id;
+					finish(queued, OperationStatus.SUPERSEDED, "Superseded by " + op.id);
+					Counter.builder("console.operations.coalesced")
+							.description("Queued operations replaced by a newer one for the same application")
+							.tag("type", op.type.name())
+							.register(meterRegistry)
+							.increment();
+				}
+			}
+			pending.addLast(op);
+		} finally {
+			lock.unlock();
+		}
+
+		if (startDrain) {
+			operationExecutor.execute(() -> drain(op.applicationId));
+		}
+		return snapshot(op);
+	}
+
+	private void drain(UUID applicationId) {
+		while (true) {
+			Operation op;
+			lock.lock();
+			try {
+				Deque<Operation> pending = pendingByApp.get(applicationId);
+				op = pending.pollFirst();
+				if (op == null) {
+					pendingByApp.remove(applicationId);
+					return;
+				}
+				op.status = OperationStatus.RUNNING;
+			} finally {
+				lock.unlock();
+			}
+			execute(op);
+		}
+	}
+
+	private void execute(Operation op) {
+		try {
+			boolean found = switch (op.type) {
+				case SCALE -> deploymentService.startDeployment(op.applicationId, op.replicas);
+				case RESTART -> deploymentService.restartDeployment(op.applicationId);
+				case EXPOSE -> {
+					deploymentService.exposeApplication(op.applicationId, op.serviceType);
+					yield true;
+				}
+			};
+			finish(op, found ? OperationStatus.SUCCEEDED : OperationStatus.NOT_FOUND,
+					found ? null : "Deployment not found for application: " + op.applicationId);
+		} catch (Exception e) {
+			System.out.println("Operation " + op.type + " failed for application " + op.applicationId + ": " + e.getMessage());
+			finish(op, OperationStatus.FAILED, e.getMessage());
+		}
+	}
+
+	private void finish(Operation op, OperationStatus status, String message) {
+		lock.lock();
+		try {
+			op.status = status;
+			op.message = message;
+			op.finishedAt = Instant.now();
+		} finally {
+			lock.unlock();
+		}
+		op.done.complete(null);
+	}
+
+	private void evictFinished() {
+		Instant cutoff = Instant.now().minus(properties.getOperations().getRetention());
+		operations.values().removeIf(op -> op.finishedAt != null && op.finishedAt.isBefore(cutoff));
+	}
+
+	private OperationResponse snapshot(Operation op) {
+		lock.lock();
+		try {
+			return new OperationResponse(op.id, op.applicationId, op.type, op.status, op.replicas, op.serviceType,
+					op.message, op.supersededBy, op.createdAt, op.finishedAt);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class Operation {
+		private final UUID id = UUID.randomUUID();
+		private final UUID applicationId;
+		private final OperationType type;
+		private final Instant createdAt = Instant.now();
+		private final CompletableFuture<Void> done = new CompletableFuture<>();
+		private Integer replicas;
+		private String serviceType;
+		private OperationStatus status = OperationStatus.QUEUED;
+		private String message;
+		private UUID supersededBy;
+		private volatile Instant finishedAt;
+
+		private Operation(UUID applicationId, OperationType type) {
+			this.applicationId = applicationId;
+			this.type = type;
+		}
+	}
+}
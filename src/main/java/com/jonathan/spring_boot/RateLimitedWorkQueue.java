@@ -0,0 +1,149 @@
+package com.jonathan.spring_boot;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Work queue in the style of the client-go controller queue. A key is held at most once while
+ * waiting, a key that is re-added while being processed is queued again only after
+ * {@link #done(Object)}, failed keys come back with exponential backoff, and {@link #take()}
+ * hands out keys no faster than the configured rate.
+ */
+public class RateLimitedWorkQueue<K> {
+	private final DelayQueue<Item<K>> queue = new DelayQueue<>();
+	private final Set<K> dirty = new HashSet<>();
+	private final Set<K> processing = new HashSet<>();
+	private final Map<K, Integer> failures = new HashMap<>();
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Duration baseDelay;
+	private final Duration maxDelay;
+	private final long permitIntervalNanos;
+	private long nextPermitNanos = System.nanoTime();
+
+	public RateLimitedWorkQueue(double permitsPerSecond, Duration baseDelay, Duration maxDelay) {
+		this.permitIntervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0L;
+		this.baseDelay = baseDelay;
+		this.maxDelay = maxDelay;
+	}
+
+	public void add(K key) {
+		addAfter(key, Duration.ZERO);
+	}
+
+	public void addAfter(K key, Duration delay) {
+		lock.lock();
+		try {
+			if (!dirty.add(key)) {
+				return;
+			}
+			if (!processing.contains(key)) {
+				queue.put(new Item<>(key, System.nanoTime() + delay.toNanos()));
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Re-queues a failed key after {@code baseDelay * 2^(failures - 1)}, capped at {@code maxDelay}. */
+	public void retry(K key) {
+		addAfter(key, backoff(key));
+	}
+
+	// Counts one more failure of the key and returns the delay before its next attempt
+	Duration backoff(K key) {
+		lock.lock();
+		try {
+			int attempts = failures.merge(key, 1, Integer::sum);
+			long factor = 1L << Math.min(attempts - 1, 30);
+			Duration delay = baseDelay.multipliedBy(factor);
+			return delay.compareTo(maxDelay) > 0 ? maxDelay : delay;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void forget(K key) {
+		lock.lock();
+		try {
+			failures.remove(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public K take() throws InterruptedException {
+		Item<K> item = queue.take();
+		lock.lock();
+		try {
+			dirty.remove(item.key);
+			processing.add(item.key);
+		} finally {
+			lock.unlock();
+		}
+		throttle();
+		return item.key;
+	}
+
+	public void done(K key) {
+		lock.lock();
+		try {
+			processing.remove(key);
+			if (dirty.contains(key)) {
+				queue.put(new Item<>(key, System.nanoTime()));
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int size() {
+		return queue.size();
+	}
+
+	private void throttle() throws InterruptedException {
+		if (permitIntervalNanos == 0) {
+			return;
+		}
+		long wait;
+		lock.lock();
+		try {
+			long now = System.nanoTime();
+			long slot = Math.max(now, nextPermitNanos);
+			nextPermitNanos = slot + permitIntervalNanos;
+			wait = slot - now;
+		} finally {
+			lock.unlock();
+		}
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	private static final class Item<K> implements Delayed {
+		private final K key;
+		private final long readyAtNanos;
+
+		private Item(K key, long readyAtNanos) {
+			this.key = key;
+			this.readyAtNanos = readyAtNanos;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(readyAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(readyAtNanos, ((Item<?>) other).readyAtNanos);
+		}
+	}
+}
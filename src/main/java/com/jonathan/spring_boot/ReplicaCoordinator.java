@@ -0,0 +1,291 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.CoordinationStatusResponse;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.NonDeletingOperation;
+import io.fabric8.kubernetes.client.extended.leaderelection.LeaderCallbacks;
+import io.fabric8.kubernetes.client.extended.leaderelection.LeaderElectionConfigBuilder;
+import io.fabric8.kubernetes.client.extended.leaderelection.resourcelock.LeaseLock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which console replica runs which background work. One replica holds the
+ * {@code lease-name} Lease through fabric8's leader election. Every replica also renews a member
+ * Lease of its own; the live member leases form a consistent-hash ring over application IDs, so
+ * with {@code sharded} each replica owns one slice and a dead replica's slice moves to the others
+ * once its lease expires. Without {@code sharded} the leader owns everything. With coordination
+ * disabled this replica owns everything, as before.
+ *
+ * <p>Heartbeats go straight to the apiserver rather than through {@link KubernetesApiCalls}: a
+ * renewal queued behind a busy rate limiter would let the lease lapse.
+ */
+@Component
+public class ReplicaCoordinator {
+	static final String MEMBER_LABEL = "console.coordination/member";
+	private static final String MEMBER_PREFIX = "console-member-";
+
+	private final KubernetesClient client;
+	private final ConsoleProperties.Coordination config;
+	private final String namespace;
+	private final String identity;
+	private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+	private volatile boolean leader;
+	private volatile String leaderIdentity;
+	private volatile HashRing ring;
+	// When this replica's own member lease was last renewed; past the lease duration it owns nothing
+	private volatile long renewedAtMillis;
+	private volatile boolean stopped;
+	private volatile CompletableFuture<?> election;
+	private ScheduledExecutorService heartbeat;
+
+	public ReplicaCoordinator(KubernetesClient kubernetesClient, ConsoleProperties properties, MeterRegistry meterRegistry) {
+		this.client = kubernetesClient;
+		this.config = properties.getCoordination();
+		this.namespace = config.getNamespace() != null ? config.getNamespace()
+				: kubernetesClient.getNamespace() != null ? kubernetesClient.getNamespace() : "default";
+		String hostname = System.getenv("HOSTNAME");
+		this.identity = config.getIdentity() != null ? config.getIdentity()
+				: hostname != null && !hostname.isBlank() ? hostname : "console-" + UUID.randomUUID();
+		this.ring = new HashRing(Set.of(identity), config.getVirtualNodes());
+		this.leader = !config.isEnabled();
+		Gauge.builder("console.coordination.leader", this, c -> c.isLeader() ? 1 : 0)
+				.description("1 while this replica holds the leader lease")
+				.register(meterRegistry);
+		Gauge.builder("console.coordination.members", this, c -> c.ring.members().size())
+				.description("Live console replicas sharing background work")
+				.register(meterRegistry);
+	}
+
+	@PostConstruct
+	public void start() {
+		if (!config.isEnabled()) {
+			return;
+		}
+		long period = Math.max(1, config.getLeaseDuration().toMillis() / 3);
+		heartbeat = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("coordination-"));
+		heartbeat.scheduleWithFixedDelay(this::tick, 0, period, TimeUnit.MILLISECONDS);
+		elect();
+	}
+
+	@PreDestroy
+	public void stop() {
+		stopped = true;
+		// releaseOnCancel hands the leader lease over without waiting for it to expire
+		CompletableFuture<?> running = election;
+		if (running != null) running.cancel(true);
+		if (heartbeat != null) heartbeat.shutdownNow();
+		if (config.isEnabled()) {
+			try {
+				client.leases().inNamespace(namespace).withName(memberLeaseName(identity)).delete();
+			} catch (RuntimeException e) {
+				System.out.println("Could not remove member lease of " + identity + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/** Runs whenever the set of applications this replica owns may have changed. */
+	public void onOwnershipChange(Runnable listener) {
+		listeners.add(listener);
+	}
+
+	public boolean isLeader() {
+		return leader;
+	}
+
+	/** Whether background work for this application belongs to this replica. */
+	public boolean owns(UUID applicationId) {
+		if (!config.isEnabled()) {
+			return true;
+		}
+		if (!config.isSharded()) {
+			return leader;
+		}
+		// Cut off from the apiserver: the others have dropped this replica from their ring by now
+		if (System.currentTimeMillis() - renewedAtMillis > config.getLeaseDuration().toMillis()) {
+			return false;
+		}
+		return identity.equals(ring.owner(applicationId.toString()));
+	}
+
+	public CoordinationStatusResponse status() {
+		return CoordinationStatusResponse.builder()
+				.enabled(config.isEnabled())
+				.identity(identity)
+				.leader(isLeader())
+				.leaderIdentity(config.isEnabled() ? leaderIdentity : identity)
+				.sharded(config.isSharded())
+				.members(List.copyOf(new TreeSet<>(ring.members())))
+				.build();
+	}
+
+	// fabric8's elector returns once leadership is lost; stand again until stopped
+	private void elect() {
+		if (stopped) {
+			return;
+		}
+		election = client.leaderElector()
+				.withConfig(new LeaderElectionConfigBuilder()
+						.withName(config.getLeaseName())
+						.withLock(new LeaseLock(namespace, config.getLeaseName(), identity))
+						.withLeaseDuration(config.getLeaseDuration())
+						.withRenewDeadline(config.getRenewDeadline())
+						.withRetryPeriod(config.getRetryPeriod())
+						.withReleaseOnCancel()
+						.withLeaderCallbacks(new LeaderCallbacks(this::onStartLeading, this::onStopLeading, this::onNewLeader))
+						.build())
+				.build()
+				.start();
+		election.whenComplete((result, e) -> elect());
+	}
+
+	private void onStartLeading() {
+		leader = true;
+		System.out.println("Replica " + identity + " is now the console leader");
+		if (!config.isSharded()) fireOwnershipChange();
+	}
+
+	private void onStopLeading() {
+		leader = false;
+		System.out.println("Replica " + identity + " is no longer the console leader");
+		if (!config.isSharded()) fireOwnershipChange();
+	}
+
+	private void onNewLeader(String newLeader) {
+		leaderIdentity = newLeader;
+	}
+
+	/** Renews this replica's member lease and rebuilds the ring from the live ones. */
+	void tick() {
+		try {
+			ZonedDateTime now = ZonedDateTime.now();
+			renewMembership(now);
+			renewedAtMillis = System.currentTimeMillis();
+
+			Set<String> members = new TreeSet<>();
+			members.add(identity);
+			for (Lease lease : client.leases().inNamespace(namespace).withLabel(MEMBER_LABEL).list().getItems()) {
+				String holder = lease.getSpec() != null ? lease.getSpec().getHolderIdentity() : null;
+				if (holder != null && isAlive(lease, now)) {
+					members.add(holder);
+				} else if (leader) {
+					// A replica that died without cleaning up; only the leader sweeps so they don't race
+					client.leases().inNamespace(namespace).withName(lease.getMetadata().getName()).delete();
+				}
+			}
+			if (!members.equals(ring.members())) {
+				ring = new HashRing(members, config.getVirtualNodes());
+				System.out.println("Console replicas sharing background work: " + members);
+				if (config.isSharded()) fireOwnershipChange();
+			}
+		} catch (RuntimeException e) {
+			System.out.println("Coordination heartbeat of " + identity + " failed: " + e.getMessage());
+		}
+	}
+
+	private void renewMembership(ZonedDateTime now) {
+		Lease lease = new LeaseBuilder()
+				.withNewMetadata()
+				.withName(memberLeaseName(identity))
+				.withNamespace(namespace)
+				.addToLabels(MEMBER_LABEL, "true")
+				.endMetadata()
+				.withNewSpec()
+				.withHolderIdentity(identity)
+				.withLeaseDurationSeconds((int) Math.max(1, config.getLeaseDuration().toSeconds()))
+				.withRenewTime(now)
+				.endSpec()
+				.build();
+		client.leases().inNamespace(namespace).resource(lease).createOr(NonDeletingOperation::update);
+	}
+
+	// Compares against this replica's clock; skew between nodes eats into the lease duration
+	private static boolean isAlive(Lease lease, ZonedDateTime now) {
+		ZonedDateTime renewed = lease.getSpec().getRenewTime();
+		Integer seconds = lease.getSpec().getLeaseDurationSeconds();
+		return renewed != null && seconds != null && renewed.plusSeconds(seconds).isAfter(now);
+	}
+
+	private void fireOwnershipChange() {
+		for (Runnable listener : listeners) {
+			try {
+				listener.run();
+			} catch (RuntimeException e) {
+				System.out.println("Ownership change listener failed: " + e.getMessage());
+			}
+		}
+	}
+
+	static String memberLeaseName(String identity) {
+		String name = MEMBER_PREFIX + identity.toLowerCase().replaceAll("[^a-z0-9.-]", "-");
+		return name.length() > 253 ? name.substring(0, 253) : name;
+	}
+
+	/**
+	 * Consistent-hash ring: each member is placed at {@code virtualNodes} points and a key belongs to
+	 * the first point at or after its hash. Adding or removing a member only moves the keys next to
+	 * its points.
+	 */
+	static final class HashRing {
+		private final Set<String> members;
+		private final NavigableMap<Long, String> points = new TreeMap<>();
+
+		HashRing(Set<String> members, int virtualNodes) {
+			this.members = Set.copyOf(members);
+			for (String member : members) {
+				for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+					points.put(hash(member + "#" + i), member);
+				}
+			}
+		}
+
+		Set<String> members() {
+			return members;
+		}
+
+		String owner(String key) {
+			if (points.isEmpty()) {
+				return null;
+			}
+			Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+			return (point != null ? point : points.firstEntry()).getValue();
+		}
+
+		private static long hash(String value) {
+			try {
+				byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+				long hash = 0;
+				for (int i = 0; i < 8; i++) {
+					hash = (hash << 8) | (digest[i] & 0xff);
+				}
+				return hash;
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
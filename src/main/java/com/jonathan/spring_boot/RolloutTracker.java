@@ -0,0 +1,322 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.ClusterRegistry.Cluster;
+import com.jonathan.spring_boot.req_res.RolloutPhase;
+import com.jonathan.spring_boot.req_res.RolloutStatusResponse;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentCondition;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Completes waiters when a Deployment's rollout settles, the way {@code kubectl rollout status}
+ * decides it: the controller has observed the latest generation and every desired replica is
+ * updated and available with no old replicas left. Updates come from the cluster's informers when
+ * the cache is enabled, otherwise from one watch per tracked Deployment shared by its waiters.
+ */
+@Component
+@RequiredArgsConstructor
+public class RolloutTracker {
+	private final ClusterRegistry clusters;
+	private final ApplicationRepository applicationRepository;
+	private final KubernetesApiCalls kubernetesApi;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Map<String, Target> targets = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void start() {
+		for (Cluster cluster : clusters.all()) {
+			cluster.cache().addDeploymentHandler(new ResourceEventHandler<>() {
+				@Override
+				public void onAdd(Deployment d) {
+					offer(key(cluster, d), d);
+				}
+
+				@Override
+				public void onUpdate(Deployment oldDeployment, Deployment newDeployment) {
+					offer(key(cluster, newDeployment), newDeployment);
+				}
+
+				@Override
+				public void onDelete(Deployment d, boolean deletedFinalStateUnknown) {
+					offer(key(cluster, d), null);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Completes with the rollout's final phase, or with {@link RolloutPhase#TIMED_OUT} and the last
+	 * state seen once {@code timeout} elapses.
+	 */
+	public CompletableFuture<RolloutStatusResponse> await(UUID applicationId, Duration timeout) {
+		Application app = applicationRepository.findById(applicationId).orElse(null);
+		if (app == null) {
+			return CompletableFuture.completedFuture(RolloutStatusResponse.builder()
+					.applicationId(applicationId)
+					.phase(RolloutPhase.NOT_FOUND)
+					.message("Application not found")
+					.build());
+		}
+		Cluster cluster = clusters.get(app.getCluster());
+		String namespace = app.getNamespace();
+		String key = cluster.name() + "/" + DeploymentService.qualifiedName(namespace, app.getName());
+
+		// Register before reading the current state so no event can slip between the two
+		CompletableFuture<Deployment> settled = new CompletableFuture<>();
+		try {
+			Target target;
+			boolean openWatch;
+			lock.lock();
+			try {
+				target = targets.computeIfAbsent(key, k -> new Target());
+				target.waiters.add(settled);
+				openWatch = !cluster.cache().isEnabled() && !target.watching;
+				target.watching |= openWatch;
+			} finally {
+				lock.unlock();
+			}
+			if (openWatch) {
+				attachWatch(cluster, namespace, app.getName(), key, target);
+			}
+
+			// Always live: callers ask right after a write, which the informer may not have seen yet, and
+			// its pre-write copy would look like a finished rollout
+			Deployment live = kubernetesApi.call(cluster, "get", "deployment", () -> cluster.client().apps().deployments()
+					.inNamespace(namespace)
+					.withName(app.getName())
+					.get());
+			offer(key, live, settled);
+		} catch (RuntimeException e) {
+			// Nothing will ever complete this waiter, so drop it (and the watch, if it was the last one)
+			release(key, settled);
+			throw e;
+		}
+
+		return settled
+				.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+				.handle((deployment, error) -> {
+					Deployment last = release(key, settled);
+					RolloutStatusResponse status = toStatus(app, cluster.name(), error == null ? deployment : last);
+					if (error != null && status.getPhase() == RolloutPhase.PROGRESSING) {
+						status.setPhase(RolloutPhase.TIMED_OUT);
+						status.setMessage("Rollout still in progress after " + timeout.toSeconds() + "s");
+					}
+					return status;
+				});
+	}
+
+	int trackedCount() {
+		return targets.size();
+	}
+
+	static RolloutPhase phase(Deployment d) {
+		if (d == null) {
+			return RolloutPhase.NOT_FOUND;
+		}
+		if (progressDeadlineExceeded(d) != null) {
+			return RolloutPhase.FAILED;
+		}
+		long generation = generation(d);
+		long observed = observedGeneration(d);
+		if (observed < generation) {
+			return RolloutPhase.PROGRESSING;
+		}
+		int desired = desiredReplicas(d);
+		int updated = count(d.getStatus() != null ? d.getStatus().getUpdatedReplicas() : null);
+		int current = count(d.getStatus() != null ? d.getStatus().getReplicas() : null);
+		int available = count(d.getStatus() != null ? d.getStatus().getAvailableReplicas() : null);
+		if (updated < desired || current > updated || available < updated) {
+			return RolloutPhase.PROGRESSING;
+		}
+		return RolloutPhase.COMPLETE;
+	}
+
+	static RolloutStatusResponse toStatus(Application app, String cluster, Deployment d) {
+		RolloutPhase phase = phase(d);
+		RolloutStatusResponse.RolloutStatusResponseBuilder status = RolloutStatusResponse.builder()
+				.applicationId(app.getId())
+				.name(app.getName())
+				.namespace(app.getNamespace())
+				.cluster(cluster)
+				.phase(phase);
+		if (d == null) {
+			return status.message("Deployment not found").build();
+		}
+		DeploymentCondition failed = progressDeadlineExceeded(d);
+		return status
+				.generation(generation(d))
+				.observedGeneration(observedGeneration(d))
+				.desiredReplicas(desiredReplicas(d))
+				.updatedReplicas(count(d.getStatus() != null ? d.getStatus().getUpdatedReplicas() : null))
+				.availableReplicas(count(d.getStatus() != null ? d.getStatus().getAvailableReplicas() : null))
+				.message(failed != null ? failed.getMessage() : null)
+				.build();
+	}
+
+	private void offer(String key, Deployment d) {
+		offer(key, d, null);
+	}
+
+	/**
+	 * Records {@code d} and completes the armed waiters once it is settled. {@code arming} is a waiter
+	 * whose live read {@code d} is: waiters only become armed then, so a stale cached copy an informer
+	 * replays before that read cannot settle them.
+	 */
+	private void offer(String key, Deployment d, CompletableFuture<Deployment> arming) {
+		Target target = targets.get(key);
+		if (target == null) {
+			return;
+		}
+		List<CompletableFuture<Deployment>> done;
+		Deployment settled;
+		lock.lock();
+		try {
+			// A late event or resync of a copy older than what was already seen must not roll the state back
+			if (d == null || target.last == null || generation(d) >= generation(target.last)) {
+				target.last = d;
+			}
+			if (arming != null) {
+				target.armed.add(arming);
+			}
+			settled = target.last;
+			if (phase(settled) == RolloutPhase.PROGRESSING) {
+				return;
+			}
+			done = new ArrayList<>(target.armed);
+		} finally {
+			lock.unlock();
+		}
+		done.forEach(waiter -> waiter.complete(settled));
+	}
+
+	// Drops the waiter and, with it gone, the target and its watch; returns the last state seen
+	private Deployment release(String key, CompletableFuture<Deployment> waiter) {
+		Watch toClose = null;
+		Deployment last;
+		lock.lock();
+		try {
+			Target target = targets.get(key);
+			if (target == null) {
+				return null;
+			}
+			last = target.last;
+			target.waiters.remove(waiter);
+			target.armed.remove(waiter);
+			if (target.waiters.isEmpty()) {
+				targets.remove(key);
+				toClose = target.watch;
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (toClose != null) {
+			toClose.close();
+		}
+		return last;
+	}
+
+	// Opened outside the lock: it is a round trip, and offer() from every informer thread takes that lock
+	private void attachWatch(Cluster cluster, String namespace, String name, String key, Target target) {
+		Watch watch;
+		try {
+			watch = watch(cluster, namespace, name, key);
+		} catch (RuntimeException e) {
+			lock.lock();
+			try {
+				target.watching = false;
+			} finally {
+				lock.unlock();
+			}
+			throw e;
+		}
+		boolean current;
+		lock.lock();
+		try {
+			// The last waiter may have gone while the watch was opening
+			current = targets.get(key) == target;
+			if (current) {
+				target.watch = watch;
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (!current) {
+			watch.close();
+		}
+	}
+
+	private Watch watch(Cluster cluster, String namespace, String name, String key) {
+		return kubernetesApi.call(cluster, "watch", "deployment", () -> cluster.client().apps().deployments()
+				.inNamespace(namespace)
+				.withName(name)
+				.watch(new Watcher<>() {
+					@Override
+					public void eventReceived(Action action, Deployment d) {
+						offer(key, action == Action.DELETED ? null : d);
+					}
+
+					@Override
+					public void onClose(WatcherException e) {
+						System.out.println("Rollout watch for " + key + " closed: " + e.getMessage());
+					}
+				}));
+	}
+
+	private static String key(Cluster cluster, Deployment d) {
+		return cluster.name() + "/" + DeploymentService.qualifiedName(d);
+	}
+
+	private static DeploymentCondition progressDeadlineExceeded(Deployment d) {
+		if (d.getStatus() == null || d.getStatus().getConditions() == null) {
+			return null;
+		}
+		return d.getStatus().getConditions().stream()
+				.filter(c -> "Progressing".equals(c.getType()) && "ProgressDeadlineExceeded".equals(c.getReason()))
+				.findFirst()
+				.orElse(null);
+	}
+
+	private static long generation(Deployment d) {
+		return d.getMetadata() != null && d.getMetadata().getGeneration() != null ? d.getMetadata().getGeneration() : 0;
+	}
+
+	private static long observedGeneration(Deployment d) {
+		return d.getStatus() != null && d.getStatus().getObservedGeneration() != null ? d.getStatus().getObservedGeneration() : 0;
+	}
+
+	// An unset spec.replicas means 1, as the apiserver defaults it
+	private static int desiredReplicas(Deployment d) {
+		return d.getSpec() != null && d.getSpec().getReplicas() != null ? d.getSpec().getReplicas() : 1;
+	}
+
+	private static int count(Integer value) {
+		return value != null ? value : 0;
+	}
+
+	private static final class Target {
+		private final List<CompletableFuture<Deployment>> waiters = new ArrayList<>();
+		// Waiters whose initial live read has been offered; only these are completed
+		private final List<CompletableFuture<Deployment>> armed = new ArrayList<>();
+		private Watch watch;
+		// Set once some caller has taken on opening the watch, before it is attached
+		private boolean watching;
+		private Deployment last;
+	}
+}
@@ -0,0 +1,122 @@
+package com.jonathan.spring_boot;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight, stale-while-revalidate cache for expensive reads. Concurrent callers of one key
+ * share a single in-flight load. A snapshot younger than {@code freshFor} is served as is; an
+ * older one, up to {@code serveStaleFor}, is served at once while a refresh runs in the
+ * background. A failed refresh leaves the last good snapshot in place.
+ *
+ * <p>{@link #invalidate()} marks snapshots as out of date: the next caller waits up to
+ * {@code refreshWait} for the refresh and only falls back to the old snapshot if it is not done.
+ */
+public class SnapshotCache<K, V> {
+	public record Snapshot<V>(V value, long takenAtMillis, boolean stale) {
+		public Duration age() {
+			return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - takenAtMillis));
+		}
+	}
+
+	private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+	private final Duration freshFor;
+	private final Duration serveStaleFor;
+	private final Duration refreshWait;
+	private final Executor executor;
+	// Combines the previous value with a freshly loaded one, e.g. to keep data of a source that failed
+	private final BinaryOperator<V> merge;
+
+	public SnapshotCache(Duration freshFor, Duration serveStaleFor, Duration refreshWait, Executor executor, BinaryOperator<V> merge) {
+		this.freshFor = freshFor;
+		this.serveStaleFor = serveStaleFor;
+		this.refreshWait = refreshWait;
+		this.executor = executor;
+		this.merge = merge;
+	}
+
+	public Snapshot<V> get(K key, Supplier<V> loader) {
+		Entry<V> entry = entries.computeIfAbsent(key, k -> new Entry<>());
+		Snapshot<V> current = entry.snapshot;
+		boolean invalidated = entry.loadedGeneration < entry.generation;
+		if (current != null && !invalidated && current.age().compareTo(freshFor) < 0) {
+			return current;
+		}
+
+		CompletableFuture<Snapshot<V>> refresh = refresh(key, entry, loader);
+		boolean usable = current != null && current.age().compareTo(serveStaleFor) < 0;
+		if (usable && !invalidated) {
+			return stale(current);
+		}
+		try {
+			if (usable) {
+				return refresh.get(refreshWait.toMillis(), TimeUnit.MILLISECONDS);
+			}
+			return refresh.join();
+		} catch (TimeoutException | ExecutionException e) {
+			// The refresh carries on and lands in the cache for the next caller
+			return stale(current);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return stale(current);
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+		}
+	}
+
+	/** Marks every snapshot as out of date, e.g. when the data behind it is known to have changed. */
+	public void invalidate() {
+		entries.values().forEach(entry -> entry.generation++);
+	}
+
+	private CompletableFuture<Snapshot<V>> refresh(K key, Entry<V> entry, Supplier<V> loader) {
+		synchronized (entry) {
+			if (entry.inFlight != null) {
+				return entry.inFlight;
+			}
+			long generation = entry.generation;
+			CompletableFuture<Snapshot<V>> load = CompletableFuture.supplyAsync(() -> {
+				V loaded = loader.get();
+				Snapshot<V> previous = entry.snapshot;
+				V value = previous != null ? merge.apply(previous.value(), loaded) : loaded;
+				Snapshot<V> snapshot = new Snapshot<>(value, System.currentTimeMillis(), false);
+				synchronized (entry) {
+					entry.snapshot = snapshot;
+					entry.loadedGeneration = Math.max(entry.loadedGeneration, generation);
+				}
+				return snapshot;
+			}, executor);
+			entry.inFlight = load;
+			load.whenComplete((snapshot, e) -> {
+				synchronized (entry) {
+					if (entry.inFlight == load) entry.inFlight = null;
+				}
+				if (e != null) {
+					System.out.println("Refresh of " + key + " failed, serving the last snapshot: " + e.getMessage());
+				}
+			});
+			return load;
+		}
+	}
+
+	private static <V> Snapshot<V> stale(Snapshot<V> snapshot) {
+		return new Snapshot<>(snapshot.value(), snapshot.takenAtMillis(), true);
+	}
+
+	private static final class Entry<V> {
+		private volatile Snapshot<V> snapshot;
+		// Bumped by invalidate(); a load only counts as current if it started after the last bump
+		private volatile long generation;
+		private volatile long loadedGeneration;
+		private CompletableFuture<Snapshot<V>> inFlight;
+	}
+}
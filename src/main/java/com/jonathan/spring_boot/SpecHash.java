@@ -0,0 +1,39 @@
+package com.jonathan.spring_boot;
+
+import io.fabric8.kubernetes.api.model.PodTemplateSpec;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.utils.Serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content hash of the pod template the console renders for a blueprint. It is stamped on the
+ * Deployment as an annotation so "does the cluster match the blueprint" is a string compare.
+ * Replicas are deliberately outside the hash since start/stop change them at runtime.
+ */
+public final class SpecHash {
+	public static final String ANNOTATION = "atlas-deck/spec-hash";
+
+	private SpecHash() {
+	}
+
+	public static String of(PodTemplateSpec template) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(Serialization.asJson(template).getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(hash, 0, 16);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	public static String annotation(Deployment deployment) {
+		if (deployment == null || deployment.getMetadata() == null || deployment.getMetadata().getAnnotations() == null) {
+			return null;
+		}
+		return deployment.getMetadata().getAnnotations().get(ANNOTATION);
+	}
+}
@@ -10,8 +10,11 @@ import java.util.Optional;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@EqualsAndHashCode
 public class ActiveDeploymentResponse {
 	private String name;
+	private String namespace;
+	private String cluster;
 	private String image;
 	private int desiredReplicas;
 	private int containerPort;
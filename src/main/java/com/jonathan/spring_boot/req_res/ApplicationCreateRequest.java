@@ -1,7 +1,8 @@
 package com.jonathan.spring_boot.req_res;
 
 import lombok.*;
-import tools.jackson.databind.JsonNode;
+
+import java.util.Map;
 
 @Getter
 @Setter
@@ -11,10 +12,12 @@ import tools.jackson.databind.JsonNode;
 public class ApplicationCreateRequest {
 	private String name;
 	private String image;
+	private String namespace;          // optional, defaults to "default"; cannot change on update
+	private String cluster;            // optional, defaults to the default cluster; cannot change on update
 	private Integer desiredReplicas;   // optional, default handled in service
 	private Integer containerPort;     // optional
 	private Boolean serviceEnabled;    // optional
-	private JsonNode env;               // json string, optional
+	private Map<String, String> env;   // optional
 	private String resources_cpu;
 	private String resources_ram;
 }
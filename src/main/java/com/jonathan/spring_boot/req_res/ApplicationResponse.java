@@ -1,9 +1,9 @@
 package com.jonathan.spring_boot.req_res;
 
 import lombok.*;
-import tools.jackson.databind.JsonNode;
 
 import java.time.Instant;
+import java.util.Map;
 import java.util.UUID;
 
 @Getter
@@ -14,11 +14,13 @@ import java.util.UUID;
 public class ApplicationResponse {
 	private UUID id;
 	private String name;
+	private String namespace;
+	private String cluster;
 	private String image;
 	private Integer desiredReplicas;   // optional, default handled in service
 	private Integer containerPort;     // optional
 	private Boolean serviceEnabled;    // optional
-	private JsonNode env;               // json string, optional
+	private Map<String, String> env;   // optional
 	private String resources_cpu;
 	private String resources_ram;
 	private Instant createdAt;
@@ -0,0 +1,8 @@
+package com.jonathan.spring_boot.req_res;
+
+public enum BulkAction {
+	START,
+	STOP,
+	RESTART,
+	DELETE
+}
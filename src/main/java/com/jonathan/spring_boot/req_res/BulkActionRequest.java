@@ -0,0 +1,18 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkActionRequest {
+	private List<UUID> applicationIds;  // optional when nameSelector is set
+	private String nameSelector;        // glob on blueprint name, e.g. "team-a-*"
+	private BulkAction action;
+	private Integer replicas;           // START only, defaults to 1
+}
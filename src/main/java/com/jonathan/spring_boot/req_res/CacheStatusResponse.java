@@ -0,0 +1,20 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CacheStatusResponse {
+	private String cluster;
+	private boolean enabled;
+	private boolean synced;
+	private int deployments;
+	private int services;
+	private int pods;
+	private List<String> namespaces;   // namespaces with running informers
+}
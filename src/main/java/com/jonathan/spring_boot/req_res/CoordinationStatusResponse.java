@@ -0,0 +1,19 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CoordinationStatusResponse {
+	private boolean enabled;
+	private String identity;           // this replica
+	private boolean leader;
+	private String leaderIdentity;
+	private boolean sharded;
+	private List<String> members;      // live replicas on the hash ring
+}
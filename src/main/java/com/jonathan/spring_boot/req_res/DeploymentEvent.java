@@ -0,0 +1,19 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DeploymentEvent {
+	public enum Type {
+		ADDED,
+		MODIFIED,
+		DELETED
+	}
+
+	private Type type;
+	private ActiveDeploymentResponse deployment;
+}
@@ -0,0 +1,10 @@
+package com.jonathan.spring_boot.req_res;
+
+public enum DeploymentOutcome {
+	CREATED,
+	UPDATED,
+	UNCHANGED,
+	SUCCEEDED,
+	NOT_FOUND,
+	FAILED
+}
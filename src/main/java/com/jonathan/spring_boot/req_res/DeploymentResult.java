@@ -0,0 +1,18 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DeploymentResult {
+	private UUID applicationId;
+	private String name;
+	private DeploymentOutcome outcome;
+	private String message;
+	private long durationMs;
+}
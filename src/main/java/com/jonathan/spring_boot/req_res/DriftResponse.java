@@ -0,0 +1,17 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DriftResponse {
+	private UUID applicationId;
+	private String name;
+	private String desiredHash;
+	private String liveHash;
+}
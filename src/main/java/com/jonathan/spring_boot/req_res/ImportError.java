@@ -0,0 +1,14 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportError {
+	private long index;       // zero-based position in the upload
+	private String name;
+	private String message;
+}
@@ -0,0 +1,17 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportResponse {
+	private int imported;
+	private int conflicts;             // names that already existed, or repeated earlier in the upload
+	private int failed;                // rows that did not validate
+	private List<ImportError> errors;  // first console.bulk-import.max-errors problems
+}
@@ -0,0 +1,14 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LogLine {
+	private String pod;
+	private String line;
+	private long dropped;       // lines lost for this pod since the last event, set on "dropped" events
+}
@@ -0,0 +1,24 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OperationResponse {
+	private UUID id;
+	private UUID applicationId;
+	private OperationType type;
+	private OperationStatus status;
+	private Integer replicas;        // SCALE only
+	private String serviceType;      // EXPOSE only
+	private String message;
+	private UUID supersededBy;
+	private Instant createdAt;
+	private Instant finishedAt;
+}
@@ -0,0 +1,14 @@
+package com.jonathan.spring_boot.req_res;
+
+public enum OperationStatus {
+	QUEUED,
+	RUNNING,
+	SUCCEEDED,
+	NOT_FOUND,
+	FAILED,
+	SUPERSEDED;
+
+	public boolean isFinished() {
+		return this != QUEUED && this != RUNNING;
+	}
+}
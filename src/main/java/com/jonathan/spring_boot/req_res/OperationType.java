@@ -0,0 +1,7 @@
+package com.jonathan.spring_boot.req_res;
+
+public enum OperationType {
+	SCALE,
+	RESTART,
+	EXPOSE
+}
@@ -0,0 +1,17 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PodContainerResponse {
+	private String name;
+	private String image;
+	private boolean ready;
+	private int restartCount;
+	private String state;       // running, waiting or terminated
+	private String reason;      // e.g. CrashLoopBackOff, OOMKilled
+}
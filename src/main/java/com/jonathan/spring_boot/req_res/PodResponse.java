@@ -0,0 +1,22 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PodResponse {
+	private String name;
+	private String namespace;
+	private String phase;       // Pending, Running, Succeeded, Failed, Unknown
+	private boolean ready;      // every container ready
+	private int restarts;       // summed over containers
+	private String node;
+	private String podIp;
+	private String startTime;
+	private List<PodContainerResponse> containers;
+}
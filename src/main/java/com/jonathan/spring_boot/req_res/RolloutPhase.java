@@ -0,0 +1,9 @@
+package com.jonathan.spring_boot.req_res;
+
+public enum RolloutPhase {
+	PROGRESSING,
+	COMPLETE,
+	FAILED,
+	TIMED_OUT,
+	NOT_FOUND
+}
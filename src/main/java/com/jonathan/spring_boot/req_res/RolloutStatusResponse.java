@@ -0,0 +1,24 @@
+package com.jonathan.spring_boot.req_res;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RolloutStatusResponse {
+	private UUID applicationId;
+	private String name;
+	private String namespace;
+	private String cluster;
+	private RolloutPhase phase;
+	private long generation;
+	private long observedGeneration;
+	private int desiredReplicas;
+	private int updatedReplicas;
+	private int availableReplicas;
+	private String message;
+}
@@ -2,7 +2,8 @@ const state = {
   apps: [],
   deployments: [],
   active: [],
-  editingId: null
+  editingId: null,
+  streaming: false
 };
 
 const statusText = document.getElementById("status-text");
@@ -46,6 +47,10 @@ async function request(url, options = {}) {
   }
 
   const res = await fetch(url, opts);
+  const unavailable = res.headers.get("X-Unavailable-Clusters");
+  if (unavailable) {
+    showToast(`No answer from cluster(s) ${unavailable}; showing partial results.`, "error");
+  }
   const raw = await res.text();
   let data = null;
   if (raw) {
@@ -90,6 +95,11 @@ function setEditing(app) {
   formTitle.textContent = `Update Application`; 
   submitButton.textContent = "Update Application";
   appForm.elements.name.value = app.name || "";
+  appForm.elements.namespace.value = app.namespace || "";
+  appForm.elements.cluster.value = app.cluster || "";
+  // namespace and cluster are fixed once a blueprint exists
+  appForm.elements.namespace.readOnly = true;
+  appForm.elements.cluster.readOnly = true;
   appForm.elements.image.value = app.image || "";
   appForm.elements.desiredReplicas.value = app.desiredReplicas ?? "";
   appForm.elements.containerPort.value = app.containerPort ?? "";
@@ -106,11 +116,15 @@ function resetForm() {
   formTitle.textContent = "Create Application";
   submitButton.textContent = "Create Application";
   appForm.reset();
+  appForm.elements.namespace.readOnly = false;
+  appForm.elements.cluster.readOnly = false;
 }
 
 function buildPayload() {
   const payload = {};
   const name = appForm.elements.name.value.trim();
+  const namespace = appForm.elements.namespace.value.trim();
+  const cluster = appForm.elements.cluster.value.trim();
   const image = appForm.elements.image.value.trim();
   const desiredReplicas = appForm.elements.desiredReplicas.value;
   const containerPort = appForm.elements.containerPort.value;
@@ -124,6 +138,8 @@ function buildPayload() {
 
   payload.name = name;
   payload.image = image;
+  if (namespace) payload.namespace = namespace;
+  if (cluster) payload.cluster = cluster;
   payload.serviceEnabled = appForm.elements.serviceEnabled.checked;
 
   if (desiredReplicas !== "") payload.desiredReplicas = Number(desiredReplicas);
@@ -162,6 +178,8 @@ function renderApps() {
             <button class="btn ghost" data-action="edit">Edit</button>
           </div>
           <div class="meta-grid">
+            <span><strong>Namespace:</strong> ${app.namespace || "default"}</span>
+            <span><strong>Cluster:</strong> ${app.cluster || "default"}</span>
             <span><strong>Image:</strong> ${app.image || "-"}</span>
             <span><strong>Replicas:</strong> ${app.desiredReplicas ?? "-"}</span>
             <span><strong>Port:</strong> ${app.containerPort ?? "-"}</span>
@@ -176,6 +194,8 @@ function renderApps() {
               <button class="btn primary" data-action="deploy">Deploy</button>
               <button class="btn ghost" data-action="restart">Restart</button>
               <button class="btn ghost" data-action="stop">Stop</button>
+              <button class="btn ghost" data-action="pods">Pods</button>
+              <button class="btn ghost" data-action="logs">Logs</button>
             </div>
             <div class="action-row">
               <span class="label">Replicas</span>
@@ -196,6 +216,8 @@ function renderApps() {
               <button class="btn danger" data-action="delete-app">Delete App</button>
             </div>
           </div>
+          <div class="pod-list" hidden></div>
+          <pre class="log-view" hidden></pre>
         </article>
       `;
     })
@@ -221,6 +243,8 @@ function renderDeployments() {
             <span class="pill">${deployment.deploymentExists ? "Exists" : "Missing"}</span>
           </div>
           <div class="meta-grid">
+            <span><strong>Namespace:</strong> ${deployment.namespace || "-"}</span>
+            <span><strong>Cluster:</strong> ${deployment.cluster || "-"}</span>
             <span><strong>Image:</strong> ${deployment.image || "-"}</span>
             <span><strong>Desired:</strong> ${deployment.desiredReplicas}</span>
             <span><strong>Spec:</strong> ${deployment.specReplicas}</span>
@@ -251,6 +275,8 @@ function renderActive() {
             <span class="pill">Active</span>
           </div>
           <div class="meta-grid">
+            <span><strong>Namespace:</strong> ${deployment.namespace || "-"}</span>
+            <span><strong>Cluster:</strong> ${deployment.cluster || "-"}</span>
             <span><strong>Image:</strong> ${deployment.image || "-"}</span>
             <span><strong>Desired:</strong> ${deployment.desiredReplicas}</span>
             <span><strong>Spec:</strong> ${deployment.specReplicas}</span>
@@ -264,6 +290,60 @@ function renderActive() {
     .join("");
 }
 
+function renderPods(container, pods) {
+  if (!pods.length) {
+    container.innerHTML = "<span>No pods.</span>";
+    return;
+  }
+  container.innerHTML = pods
+    .map((pod) => {
+      const waiting = pod.containers.map((c) => c.reason).filter(Boolean).join(", ");
+      return `
+        <div class="meta-grid">
+          <span><strong>${pod.name}</strong></span>
+          <span><strong>Phase:</strong> ${pod.phase || "-"}${waiting ? ` (${waiting})` : ""}</span>
+          <span><strong>Ready:</strong> ${pod.ready ? "Yes" : "No"}</span>
+          <span><strong>Restarts:</strong> ${pod.restarts}</span>
+          <span><strong>Node:</strong> ${pod.node || "-"}</span>
+        </div>
+      `;
+    })
+    .join("");
+}
+
+const MAX_LOG_LINES = 500;
+const logStreams = new Map();
+
+// One EventSource per open log view; the browser keeps only the newest lines
+function toggleLogs(appId, view) {
+  const open = logStreams.get(appId);
+  if (open) {
+    open.close();
+    logStreams.delete(appId);
+    view.hidden = true;
+    return;
+  }
+  view.textContent = "";
+  view.hidden = false;
+  const source = new EventSource(`/api/deployment/${appId}/logs`);
+  const append = (text) => {
+    view.append(`${text}\n`);
+    while (view.childNodes.length > MAX_LOG_LINES) {
+      view.removeChild(view.firstChild);
+    }
+    view.scrollTop = view.scrollHeight;
+  };
+  source.addEventListener("log", (event) => {
+    const line = JSON.parse(event.data);
+    append(`[${line.pod}] ${line.line}`);
+  });
+  source.addEventListener("dropped", (event) => {
+    const line = JSON.parse(event.data);
+    append(`[${line.pod}] ... ${line.dropped} lines dropped`);
+  });
+  logStreams.set(appId, source);
+}
+
 function bindAppActions() {
   document.querySelectorAll(".app-card").forEach((card) => {
     const appId = card.dataset.appId;
@@ -282,6 +362,22 @@ function bindAppActions() {
             return;
           }
 
+          if (action === "pods") {
+            const podList = card.querySelector(".pod-list");
+            if (!podList.hidden) {
+              podList.hidden = true;
+              return;
+            }
+            renderPods(podList, await request(`/api/deployment/${appId}/pods`) || []);
+            podList.hidden = false;
+            return;
+          }
+
+          if (action === "logs") {
+            toggleLogs(appId, card.querySelector(".log-view"));
+            return;
+          }
+
           if (action === "delete-app") {
             await request(`/api/application/${appId}`, { method: "DELETE" });
             showToast(`Deleted application ${app.name}.`);
@@ -292,48 +388,41 @@ function bindAppActions() {
           if (action === "deploy") {
             await request(`/api/deployment/${appId}`, { method: "POST" });
             showToast(`Deployment created for ${app.name}.`);
-            await refreshDeployments();
+            await refreshDeploymentViews();
+            watchRollout(appId, app.name);
             return;
           }
 
           if (action === "restart") {
-            await request(`/api/deployment/${appId}/restart`, { method: "POST" });
-            showToast(`Restart triggered for ${app.name}.`);
-            await refreshDeployments();
+            if (await runOperation(`/api/deployment/${appId}/restart`, `Restart of ${app.name}`)) {
+              watchRollout(appId, app.name);
+            }
             return;
           }
 
           if (action === "stop") {
-            await request(`/api/deployment/${appId}/stop`, { method: "POST" });
-            showToast(`Stopped deployment for ${app.name}.`);
-            await refreshDeployments();
+            await runOperation(`/api/deployment/${appId}/stop`, `Stop of ${app.name}`);
             return;
           }
 
           if (action === "start") {
             const replicas = Number(replicasInput.value || 0);
-            await request(`/api/deployment/${appId}/start?replicas=${encodeURIComponent(replicas)}`, {
-              method: "POST"
-            });
-            showToast(`Scaled ${app.name} to ${replicas}.`);
-            await refreshDeployments();
+            await runOperation(`/api/deployment/${appId}/start?replicas=${encodeURIComponent(replicas)}`,
+              `Scale of ${app.name} to ${replicas}`);
             return;
           }
 
           if (action === "expose") {
             const type = serviceSelect.value;
-            await request(`/api/deployment/${appId}/service?type=${encodeURIComponent(type)}`, {
-              method: "POST"
-            });
-            showToast(`Service exposed for ${app.name} (${type}).`);
-            await refreshDeployments();
+            await runOperation(`/api/deployment/${appId}/service?type=${encodeURIComponent(type)}`,
+              `Expose of ${app.name} (${type})`);
             return;
           }
 
           if (action === "delete-deploy") {
             await request(`/api/deployment/${appId}`, { method: "DELETE" });
             showToast(`Deployment deleted for ${app.name}.`);
-            await refreshDeployments();
+            await refreshDeploymentViews();
             return;
           }
         } catch (err) {
@@ -349,6 +438,10 @@ async function refreshApps() {
     setStatus("Loading applications...");
     state.apps = await request("/api/application");
     renderApps();
+    if (state.streaming) {
+      deriveActive();
+      renderActive();
+    }
     setStatus("Applications loaded.");
   } catch (err) {
     showToast(err.message, "error");
@@ -381,9 +474,118 @@ async function refreshActive() {
 }
 
 async function refreshAll() {
+  if (state.streaming) {
+    await refreshApps();
+    return;
+  }
   await Promise.all([refreshApps(), refreshDeployments(), refreshActive()]);
 }
 
+// With the live stream connected, deployment tables are patched from events instead of re-fetched.
+async function refreshDeploymentViews() {
+  if (state.streaming) return;
+  await refreshDeployments();
+}
+
+function deriveActive() {
+  const byName = new Map(state.deployments.map((d) => [deploymentKey(d), d]));
+  state.active = state.apps
+    .map((app) => {
+      // blueprints created before multi-cluster support have no cluster and live on the default one
+      const deployment = app.cluster
+        ? byName.get(deploymentKey(app))
+        : state.deployments.find((d) => d.name === app.name && d.namespace === (app.namespace || "default"));
+      if (!deployment || !(deployment.specReplicas > 0 || deployment.availableReplicas > 0)) {
+        return null;
+      }
+      return {
+        ...deployment,
+        image: app.image,
+        desiredReplicas: app.desiredReplicas,
+        containerPort: app.containerPort,
+        serviceEnabled: app.serviceEnabled
+      };
+    })
+    .filter(Boolean);
+}
+
+// Deployment names are only unique within a cluster and namespace
+function deploymentKey(row) {
+  return `${row.cluster || ""}/${row.namespace || "default"}/${row.name}`;
+}
+
+function applyDeploymentEvent(event) {
+  const row = event.deployment;
+  const index = state.deployments.findIndex((d) => deploymentKey(d) === deploymentKey(row));
+  if (event.type === "DELETED") {
+    if (index >= 0) state.deployments.splice(index, 1);
+  } else if (index >= 0) {
+    state.deployments[index] = row;
+  } else {
+    state.deployments.push(row);
+  }
+  renderDeployments();
+  deriveActive();
+  renderActive();
+}
+
+const FINISHED_OPERATIONS = new Set(["SUCCEEDED", "NOT_FOUND", "FAILED", "SUPERSEDED"]);
+
+// Lifecycle actions are accepted with 202 and run in the background; long-poll until they settle
+async function runOperation(url, label) {
+  let op = await request(url, { method: "POST" });
+  showToast(`${label} queued.`);
+  while (!FINISHED_OPERATIONS.has(op.status)) {
+    op = await request(`/api/deployment/operations/${op.id}?waitSeconds=30`);
+  }
+  if (op.status === "SUPERSEDED") {
+    // a newer request for the same application replaced this one and reports on its own
+    return false;
+  }
+  if (op.status === "SUCCEEDED") {
+    showToast(`${label} done.`);
+  } else {
+    showToast(`${label} failed: ${op.message || op.status}`, "error");
+  }
+  await refreshDeploymentViews();
+  return op.status === "SUCCEEDED";
+}
+
+// The server holds the request until the rollout settles, so one call replaces polling the list
+async function watchRollout(appId, name) {
+  try {
+    const rollout = await request(`/api/deployment/${appId}/rollout`);
+    if (rollout.phase === "COMPLETE") {
+      showToast(`Rollout of ${name} complete.`);
+    } else if (rollout.phase !== "NOT_FOUND") {
+      showToast(`Rollout of ${name}: ${rollout.message || rollout.phase}`, "error");
+    }
+    await refreshDeploymentViews();
+  } catch (err) {
+    showToast(`Rollout of ${name}: ${err.message}`, "error");
+  }
+}
+
+function connectDeploymentStream() {
+  if (!("EventSource" in window)) return;
+  const source = new EventSource("/api/deployment/stream");
+  source.addEventListener("snapshot", (event) => {
+    state.streaming = true;
+    state.deployments = JSON.parse(event.data);
+    renderDeployments();
+    deriveActive();
+    renderActive();
+    setStatus("Live deployment updates connected.");
+  });
+  source.addEventListener("deployment", (event) => applyDeploymentEvent(JSON.parse(event.data)));
+  source.onerror = () => {
+    // CLOSED means the server refused the stream; fall back to fetching after actions
+    if (source.readyState === EventSource.CLOSED) {
+      state.streaming = false;
+    }
+  };
+}
+
 appForm.addEventListener("submit", async (event) => {
   event.preventDefault();
   try {
@@ -419,12 +621,17 @@ document.getElementById("refresh-deployments").addEventListener("click", refresh
 document.getElementById("refresh-active").addEventListener("click", refreshActive);
 document.getElementById("deploy-all").addEventListener("click", async () => {
   try {
-    await request("/api/deployment/all", { method: "POST" });
-    showToast("Deploying all applications.");
-    await refreshDeployments();
+    const results = await request("/api/deployment/all", { method: "POST" }) || [];
+    const count = (outcome) => results.filter((r) => r.outcome === outcome).length;
+    const failed = results.filter((r) => r.outcome === "FAILED");
+    showToast(`Deploy all: ${count("CREATED")} created, ${count("UPDATED")} updated, ${count("UNCHANGED")} unchanged, ${failed.length} failed.`,
+      failed.length ? "error" : "info");
+    failed.forEach((r) => showToast(`${r.name}: ${r.message || "failed"}`, "error"));
+    await refreshDeploymentViews();
   } catch (err) {
     showToast(err.message, "error");
   }
 });
 
 refreshAll();
+connectDeploymentStream();
@@ -0,0 +1,99 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.KubernetesApiCalls.Lane;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApiRateLimiterTest {
+
+	@Test
+	void allowsBurstThenThrottlesToRate() throws InterruptedException {
+		FakeTicker ticker = new FakeTicker();
+		ApiRateLimiter limiter = new ApiRateLimiter(10, 2, ticker);
+		assertThat(limiter.acquire(Lane.INTERACTIVE)).isZero();
+		assertThat(limiter.acquire(Lane.INTERACTIVE)).isZero();
+
+		assertThat(limiter.acquire(Lane.INTERACTIVE)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+		assertThat(limiter.acquire(Lane.INTERACTIVE)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+	}
+
+	@Test
+	void waitsOnlyForTheRestOfTheRefillInterval() throws InterruptedException {
+		FakeTicker ticker = new FakeTicker();
+		ApiRateLimiter limiter = new ApiRateLimiter(10, 1, ticker);
+		limiter.acquire(Lane.INTERACTIVE);
+
+		ticker.nanos += TimeUnit.MILLISECONDS.toNanos(30);
+
+		assertThat(limiter.acquire(Lane.INTERACTIVE)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(70));
+	}
+
+	@Test
+	void refillsNoMoreThanBurst() throws InterruptedException {
+		FakeTicker ticker = new FakeTicker();
+		ApiRateLimiter limiter = new ApiRateLimiter(10, 2, ticker);
+
+		ticker.nanos += TimeUnit.SECONDS.toNanos(10);
+
+		assertThat(limiter.acquire(Lane.BACKGROUND)).isZero();
+		assertThat(limiter.acquire(Lane.BACKGROUND)).isZero();
+		assertThat(limiter.acquire(Lane.BACKGROUND)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+	}
+
+	@Test
+	void interactiveCallerPreemptsWaitingBackgroundCaller() throws InterruptedException {
+		ApiRateLimiter limiter = new ApiRateLimiter(10, 1);
+		limiter.acquire(Lane.INTERACTIVE);
+
+		List<Lane> order = new CopyOnWriteArrayList<>();
+		Thread background = acquireInThread(limiter, Lane.BACKGROUND, order);
+		Thread.sleep(20);
+		Thread interactive = acquireInThread(limiter, Lane.INTERACTIVE, order);
+		background.join(2000);
+		interactive.join(2000);
+
+		assertThat(order).containsExactly(Lane.INTERACTIVE, Lane.BACKGROUND);
+	}
+
+	@Test
+	void disabledLimiterNeverWaits() throws InterruptedException {
+		ApiRateLimiter limiter = new ApiRateLimiter(0, 1);
+		for (int i = 0; i < 100; i++) {
+			assertThat(limiter.acquire(Lane.BACKGROUND)).isZero();
+		}
+	}
+
+	// Time only moves when the test or a limiter wait moves it
+	private static final class FakeTicker implements ApiRateLimiter.Ticker {
+		private long nanos = 1_000_000_000L;
+
+		@Override
+		public long nanoTime() {
+			return nanos;
+		}
+
+		@Override
+		public void awaitNanos(Condition condition, long waitNanos) {
+			nanos += waitNanos;
+		}
+	}
+
+	private static Thread acquireInThread(ApiRateLimiter limiter, Lane lane, List<Lane> order) {
+		Thread thread = new Thread(() -> {
+			try {
+				limiter.acquire(lane);
+				order.add(lane);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		thread.start();
+		return thread;
+	}
+}
@@ -0,0 +1,85 @@
+package com.jonathan.spring_boot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.yaml.snakeyaml.Yaml;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ApplicationExporterTest {
+	private final List<Application> apps = IntStream.range(0, 5)
+			.mapToObj(i -> Application.builder()
+					.id(UUID.randomUUID())
+					.name("app-" + i)
+					.image("nginx:1.27")
+					.desiredReplicas(1)
+					.containerPort(80)
+					.serviceEnabled(i % 2 == 0)
+					.resources_cpu("250m")
+					.resources_ram("128Mi")
+					.build())
+			.toList();
+
+	private ApplicationRepository applicationRepository;
+	private ApplicationExporter exporter;
+
+	@BeforeEach
+	void setUp() {
+		applicationRepository = mock(ApplicationRepository.class);
+		// Serves the sorted list after the cursor, like the keyset query would
+		when(applicationRepository.findByNameGreaterThanOrderByNameAsc(anyString(), any(Limit.class))).thenAnswer(call -> {
+			String cursor = call.getArgument(0);
+			Limit limit = call.getArgument(1);
+			return apps.stream().filter(app -> app.getName().compareTo(cursor) > 0).limit(limit.max()).toList();
+		});
+		ConsoleProperties properties = new ConsoleProperties();
+		properties.getExport().setPageSize(2);
+		exporter = new ApplicationExporter(applicationRepository, JsonMapper.builder().build(), properties);
+	}
+
+	@Test
+	void walksKeysetPagesIntoNdjson() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		exporter.export(ApplicationExporter.Format.NDJSON, out);
+
+		List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+		assertThat(lines).hasSize(5);
+		assertThat(lines.get(0)).contains("\"name\":\"app-0\"");
+		verify(applicationRepository).findByNameGreaterThanOrderByNameAsc("", Limit.of(2));
+		verify(applicationRepository).findByNameGreaterThanOrderByNameAsc("app-1", Limit.of(2));
+		verify(applicationRepository).findByNameGreaterThanOrderByNameAsc("app-3", Limit.of(2));
+	}
+
+	@Test
+	void rendersDeploymentAndServiceManifests() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		exporter.export(ApplicationExporter.Format.YAML, out);
+
+		List<String> kinds = new ArrayList<>();
+		for (Object document : new Yaml().loadAll(out.toString(StandardCharsets.UTF_8))) {
+			kinds.add((String) ((Map<?, ?>) document).get("kind"));
+		}
+		// app-0, app-2 and app-4 have a Service
+		assertThat(kinds).filteredOn("Deployment"::equals).hasSize(5);
+		assertThat(kinds).filteredOn("Service"::equals).hasSize(3);
+		assertThat(out.toString(StandardCharsets.UTF_8)).contains(SpecHash.ANNOTATION);
+	}
+}
@@ -0,0 +1,147 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.ImportError;
+import com.jonathan.spring_boot.req_res.ImportResponse;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ApplicationImporterTest {
+	private JdbcTemplate jdbcTemplate;
+	private ApplicationImporter importer;
+
+	@BeforeEach
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:import-" + UUID.randomUUID()
+				+ ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		// Mirrors the table Hibernate generates for Application
+		jdbcTemplate.execute("""
+				create table applications (
+					id uuid not null primary key,
+					name varchar(255) not null unique,
+					namespace varchar(63) default 'default' not null,
+					cluster varchar(63),
+					image varchar(255) not null,
+					desired_replicas integer not null,
+					container_port integer,
+					service_enabled boolean not null,
+					env jsonb,
+					resources_cpu varchar(255),
+					resources_ram varchar(255),
+					created_at timestamp(6) with time zone not null,
+					updated_at timestamp(6) with time zone not null
+				)""");
+
+		ConsoleProperties properties = new ConsoleProperties();
+		properties.getBulkImport().setChunkSize(100);
+		ClusterRegistry clusters = new ClusterRegistry("default", List.of(new ClusterRegistry.Cluster(
+				"default", mock(KubernetesClient.class), null, new ApiRateLimiter(0, 0), Duration.ofSeconds(5), false)),
+				Executors.newCachedThreadPool());
+		ApplicationRepository applicationRepository = mock(ApplicationRepository.class);
+		BlueprintCache blueprintCache = new BlueprintCache(applicationRepository, jdbcTemplate, properties, new SimpleMeterRegistry());
+		ApplicationService applicationService = new ApplicationService(
+				applicationRepository, mock(ApplicationEventPublisher.class), clusters, blueprintCache);
+		importer = new ApplicationImporter(applicationService, jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate),
+				new TransactionTemplate(new DataSourceTransactionManager(dataSource)), JsonMapper.builder().build(), properties,
+				blueprintCache);
+	}
+
+	@Test
+	void importsNdjsonInChunks() {
+		String body = IntStream.range(0, 1000)
+				.mapToObj(i -> "{\"name\":\"app-" + i + "\",\"image\":\"nginx:1.27\",\"env\":{\"INDEX\":\"" + i + "\"}}")
+				.collect(Collectors.joining("\n"));
+
+		ImportResponse response = importer.importApplications(stream(body), false);
+
+		assertThat(response.getImported()).isEqualTo(1000);
+		assertThat(response.getErrors()).isEmpty();
+		assertThat(jdbcTemplate.queryForObject("select count(*) from applications", Integer.class)).isEqualTo(1000);
+		assertThat(jdbcTemplate.queryForObject("select env from applications where name = 'app-7'", String.class))
+				.contains("\"INDEX\":\"7\"");
+		assertThat(jdbcTemplate.queryForObject("select desired_replicas from applications where name = 'app-7'", Integer.class))
+				.isEqualTo(1);
+	}
+
+	@Test
+	void reportsConflictsAndInvalidRowsFromJsonArray() {
+		importer.importApplications(stream("[{\"name\":\"taken\",\"image\":\"nginx:1.27\"}]"), false);
+
+		ImportResponse response = importer.importApplications(stream("""
+				[
+				  {"name": "taken", "image": "nginx:1.27"},
+				  {"name": "fresh", "image": "nginx:1.27"},
+				  {"name": "fresh", "image": "nginx:1.28"},
+				  {"name": "no-image"},
+				  {"name": "bad-ns", "image": "nginx:1.27", "namespace": "Not_Valid"}
+				]"""), false);
+
+		assertThat(response.getImported()).isEqualTo(1);
+		assertThat(response.getConflicts()).isEqualTo(2);
+		assertThat(response.getFailed()).isEqualTo(2);
+		assertThat(response.getErrors()).extracting(ImportError::getIndex).containsExactlyInAnyOrder(0L, 2L, 3L, 4L);
+	}
+
+	@Test
+	void importsMultiDocumentYaml() {
+		ImportResponse response = importer.importApplications(stream("""
+				name: api
+				image: nginx:1.27
+				namespace: team-a
+				desiredReplicas: 3
+				env:
+				  PORT: 8080
+				---
+				- name: web
+				  image: nginx:1.27
+				- name: worker
+				  image: busybox
+				---
+				"""), true);
+
+		assertThat(response.getImported()).isEqualTo(3);
+		assertThat(jdbcTemplate.queryForObject("select namespace from applications where name = 'api'", String.class))
+				.isEqualTo("team-a");
+		assertThat(jdbcTemplate.queryForObject("select desired_replicas from applications where name = 'api'", Integer.class))
+				.isEqualTo(3);
+	}
+
+	@Test
+	void keepsCommittedChunksWhenInputBreaksOff() {
+		String body = IntStream.range(0, 150)
+				.mapToObj(i -> "{\"name\":\"app-" + i + "\",\"image\":\"nginx:1.27\"}")
+				.collect(Collectors.joining("\n")) + "\n{\"name\": broken";
+
+		ImportResponse response = importer.importApplications(stream(body), false);
+
+		assertThat(response.getImported()).isEqualTo(150);
+		assertThat(response.getFailed()).isEqualTo(1);
+		assertThat(response.getErrors()).singleElement()
+				.satisfies(e -> assertThat(e.getMessage()).startsWith("Unreadable input"));
+	}
+
+	private static ByteArrayInputStream stream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,107 @@
+package com.jonathan.spring_boot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BlueprintCacheTest {
+	private final Application app = Application.builder().id(UUID.randomUUID()).name("web").image("nginx:1.27").build();
+
+	private ApplicationRepository applicationRepository;
+	private SimpleMeterRegistry meterRegistry;
+	private ConsoleProperties properties;
+
+	@BeforeEach
+	void setUp() {
+		applicationRepository = mock(ApplicationRepository.class);
+		when(applicationRepository.findById(app.getId())).thenReturn(Optional.of(app));
+		when(applicationRepository.findAll()).thenReturn(List.of(app));
+		meterRegistry = new SimpleMeterRegistry();
+		properties = new ConsoleProperties();
+	}
+
+	@Test
+	void servesRepeatedReadsFromMemory() {
+		BlueprintCache cache = cache();
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(cache.findById(app.getId())).contains(app);
+			assertThat(cache.findAll()).containsExactly(app);
+		}
+
+		verify(applicationRepository, times(1)).findById(app.getId());
+		verify(applicationRepository, times(1)).findAll();
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "blueprints").tag("result", "hit").functionCounter().count())
+				.isEqualTo(2);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "blueprints").tag("result", "miss").functionCounter().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void localWriteEvictsEntryAndList() {
+		BlueprintCache cache = cache();
+		cache.findById(app.getId());
+		cache.findAll();
+
+		cache.evict(app.getId());
+		cache.findById(app.getId());
+		cache.findAll();
+
+		verify(applicationRepository, times(2)).findById(app.getId());
+		verify(applicationRepository, times(2)).findAll();
+	}
+
+	@Test
+	void peerNotificationEvicts() {
+		BlueprintCache cache = cache();
+		cache.findById(app.getId());
+
+		cache.onNotification("other-replica:" + app.getId());
+		cache.findById(app.getId());
+		cache.onNotification("garbage");
+		cache.onNotification("other-replica:*");
+		cache.findById(app.getId());
+
+		verify(applicationRepository, times(3)).findById(app.getId());
+		assertThat(meterRegistry.get("console.blueprints.invalidations").tag("source", "remote").counter().count())
+				.isEqualTo(2);
+	}
+
+	@Test
+	void unknownIdsAreNotCached() {
+		BlueprintCache cache = cache();
+		UUID missing = UUID.randomUUID();
+
+		assertThat(cache.findById(missing)).isEmpty();
+		assertThat(cache.findById(missing)).isEmpty();
+
+		verify(applicationRepository, times(2)).findById(missing);
+	}
+
+	@Test
+	void disabledCacheReadsThrough() {
+		properties.getBlueprints().setCacheEnabled(false);
+		BlueprintCache cache = cache();
+
+		cache.findById(app.getId());
+		cache.findById(app.getId());
+
+		verify(applicationRepository, times(2)).findById(app.getId());
+	}
+
+	private BlueprintCache cache() {
+		// A mocked JdbcTemplate is not PostgreSQL, so no NOTIFY is sent
+		return new BlueprintCache(applicationRepository, mock(JdbcTemplate.class), properties, meterRegistry);
+	}
+}
@@ -0,0 +1,325 @@
+package com.jonathan.spring_boot;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesCrudDispatcher;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.mockwebserver.Context;
+import io.fabric8.mockwebserver.MockWebServer;
+import io.fabric8.mockwebserver.http.RecordedRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Capacity check for the REST API: seeds blueprints into an in-memory database and a CRUD-mode
+ * fabric8 mock apiserver, then drives each dashboard endpoint with concurrent users and reports
+ * latency percentiles, apiserver requests and SQL statements per HTTP request.
+ *
+ * <p>Run with {@code mvn -Pload test}. Sizing is taken from system properties:
+ * {@code load.blueprints} (2000), {@code load.users} (50), {@code load.requestsPerUser} (20)
+ * and {@code load.label} for the report file under {@code target/load-reports}.
+ */
+@Tag("load")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ConsoleLoadTest.MockClusterConfig.class)
+class ConsoleLoadTest {
+	private static final int BLUEPRINTS = Integer.getInteger("load.blueprints", 2000);
+	private static final int USERS = Integer.getInteger("load.users", 50);
+	private static final int REQUESTS_PER_USER = Integer.getInteger("load.requestsPerUser", 20);
+	private static final String LABEL = System.getProperty("load.label", "default");
+
+	private static final List<String> ENDPOINTS = List.of(
+			"/api/application",
+			"/api/application?limit=100",
+			"/api/deployment",
+			"/api/deployment?limit=100",
+			"/api/deployment/active",
+			"/api/deployment/drift",
+			"/api/application/export"
+	);
+
+	// Polled again with the ETag of a first response, as a dashboard revalidating its lists would
+	private static final List<String> CONDITIONAL_ENDPOINTS = List.of(
+			"/api/application",
+			"/api/deployment"
+	);
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	KubernetesMockServer server;
+
+	@Autowired
+	KubernetesClient client;
+
+	@Autowired
+	ApplicationRepository applicationRepository;
+
+	@Autowired
+	ClusterRegistry clusterRegistry;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	Environment environment;
+
+	@TestConfiguration
+	static class MockClusterConfig {
+
+		@Bean(destroyMethod = "destroy")
+		KubernetesMockServer kubernetesMockServer() {
+			KubernetesMockServer server = new KubernetesMockServer(
+					new Context(), new MockWebServer(), new HashMap<>(), new KubernetesCrudDispatcher(), false);
+			server.init();
+			return server;
+		}
+
+		@Bean
+		@Primary
+		KubernetesClient mockKubernetesClient(KubernetesMockServer server) {
+			return server.createClient();
+		}
+	}
+
+	@Test
+	void dashboardEndpointsUnderConcurrentLoad() throws Exception {
+		HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+		long importMillis = seed(http);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		List<String> report = new ArrayList<>();
+		report.add(String.format("blueprints=%d users=%d requestsPerUser=%d label=%s cacheSynced=%s threads=%s",
+				BLUEPRINTS, USERS, REQUESTS_PER_USER, LABEL, clusterRegistry.get(null).cache().isSynced(),
+				Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform"));
+		report.add(String.format("seed: POST /api/application/import of %d NDJSON rows took %d ms", BLUEPRINTS, importMillis));
+		report.add(String.format("%-32s %8s %7s %9s %9s %9s %9s %10s %12s %12s",
+				"endpoint", "requests", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms", "req/s", "api/request", "sql/request"));
+
+		List<String> phases = new ArrayList<>(ENDPOINTS);
+		CONDITIONAL_ENDPOINTS.forEach(endpoint -> phases.add(endpoint + " (304)"));
+		for (String phase : phases) {
+			String endpoint = phase.replace(" (304)", "");
+			String etag = phase.endsWith("(304)") ? etag(http, endpoint) : null;
+			drainApiRequests();
+			statistics.clear();
+
+			PhaseResult result = runPhase(http, endpoint, etag);
+
+			Map<String, Integer> apiCalls = drainApiRequests();
+			int apiTotal = apiCalls.values().stream().mapToInt(Integer::intValue).sum();
+			long sqlTotal = statistics.getPrepareStatementCount();
+
+			report.add(String.format("%-32s %8d %7d %9.1f %9.1f %9.1f %9.1f %10.1f %12.2f %12.2f",
+					phase, result.requests(), result.errors.get(),
+					result.percentile(50), result.percentile(95), result.percentile(99), result.percentile(100),
+					result.throughput(),
+					apiTotal / (double) result.requests(),
+					sqlTotal / (double) result.requests()));
+			apiCalls.forEach((call, count) -> report.add(String.format("    apiserver %-60s %d", call, count)));
+
+			assertThat(result.errors.get()).as("failed requests for %s", phase).isZero();
+		}
+
+		HttpResponse<String> scrape = http.send(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/prometheus")).GET().build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertThat(scrape.statusCode()).isEqualTo(200);
+		scrape.body().lines()
+				.filter(line -> line.startsWith("console_kubernetes_requests") || line.startsWith("spring_data_repository_invocations_seconds_count")
+						|| line.startsWith("hikaricp_connections_max") || line.startsWith("hikaricp_connections_timeout_total")
+						|| line.startsWith("hikaricp_connections_acquire_seconds_max"))
+				.forEach(line -> report.add("    metric " + line));
+
+		report.forEach(System.out::println);
+		writeReport(report);
+	}
+
+	// Blueprints go in through the bulk import endpoint; returns how long the import took
+	private long seed(HttpClient http) throws Exception {
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 0; i < BLUEPRINTS; i++) {
+			ndjson.append(String.format("{\"name\":\"load-app-%d\",\"image\":\"registry.local/load/app-%d:1.0\","
+							+ "\"desiredReplicas\":%d,\"containerPort\":8080,\"serviceEnabled\":%b,"
+							+ "\"env\":{\"APP_INDEX\":\"%d\",\"PROFILE\":\"load\"},"
+							+ "\"resources_cpu\":\"250m\",\"resources_ram\":\"128Mi\"}%n",
+					i, i, 1 + i % 3, i % 2 == 0, i));
+		}
+		long started = System.nanoTime();
+		HttpResponse<String> imported = http.send(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/application/import"))
+						.header("Content-Type", "application/x-ndjson")
+						.POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+						.build(),
+				HttpResponse.BodyHandlers.ofString());
+		long importMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+		assertThat(imported.statusCode()).isEqualTo(200);
+		assertThat(imported.body()).contains("\"imported\":" + BLUEPRINTS);
+
+		// Three quarters of the blueprints are deployed, half of those with a Service
+		for (Application app : applicationRepository.findAll()) {
+			int index = Integer.parseInt(app.getName().substring("load-app-".length()));
+			if (index % 4 == 3) continue;
+			client.apps().deployments().inNamespace("default")
+					.resource(DeploymentService.buildDeployment(app)).create();
+			if (app.getServiceEnabled()) {
+				client.services().inNamespace("default")
+						.resource(DeploymentService.buildService(app, "ClusterIP")).create();
+			}
+		}
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		// Informers start lazily on first use of a namespace
+		DeploymentCache deploymentCache = clusterRegistry.get(null).cache();
+		while (deploymentCache.isEnabled()
+				&& (!deploymentCache.isSynced("default") || deploymentCache.deploymentCount() < BLUEPRINTS * 3 / 4)
+				&& System.nanoTime() < deadline) {
+			Thread.sleep(100);
+		}
+		return importMillis;
+	}
+
+	// A stale snapshot carries its own, older tag; take the tag once two responses agree on it
+	private String etag(HttpClient http, String endpoint) throws Exception {
+		String previous = null;
+		for (int attempt = 0; attempt < 20; attempt++) {
+			HttpResponse<Void> response = http.send(
+					HttpRequest.newBuilder(URI.create("http://localhost:" + port + endpoint)).GET().build(),
+					HttpResponse.BodyHandlers.discarding());
+			String etag = response.headers().firstValue("ETag").orElse(null);
+			if (etag != null && etag.equals(previous)) {
+				return etag;
+			}
+			previous = etag;
+			Thread.sleep(100);
+		}
+		throw new AssertionError("No stable ETag for " + endpoint + ", last " + previous);
+	}
+
+	// With an ETag every request is conditional and only 304 counts as success
+	private PhaseResult runPhase(HttpClient http, String endpoint, String etag) throws InterruptedException {
+		PhaseResult result = new PhaseResult(USERS * REQUESTS_PER_USER);
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + endpoint))
+				.timeout(Duration.ofSeconds(30))
+				.GET();
+		if (etag != null) {
+			builder.header("If-None-Match", etag);
+		}
+		HttpRequest request = builder.build();
+		int expected = etag != null ? 304 : 200;
+
+		ExecutorService users = Executors.newFixedThreadPool(USERS);
+		CountDownLatch start = new CountDownLatch(1);
+		long began = System.nanoTime();
+		for (int u = 0; u < USERS; u++) {
+			users.execute(() -> {
+				try {
+					start.await();
+					for (int r = 0; r < REQUESTS_PER_USER; r++) {
+						long t0 = System.nanoTime();
+						try {
+							HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() != expected) result.errors.incrementAndGet();
+						} catch (IOException e) {
+							result.errors.incrementAndGet();
+						}
+						result.record(System.nanoTime() - t0);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		start.countDown();
+		users.shutdown();
+		users.awaitTermination(10, TimeUnit.MINUTES);
+		result.elapsedNanos = System.nanoTime() - began;
+		return result;
+	}
+
+	private Map<String, Integer> drainApiRequests() throws InterruptedException {
+		Map<String, Integer> calls = new TreeMap<>();
+		RecordedRequest recorded;
+		while ((recorded = server.takeRequest(10, TimeUnit.MILLISECONDS)) != null) {
+			String path = recorded.getPath();
+			int query = path.indexOf('?');
+			String key = recorded.getMethod() + " " + (query >= 0 ? path.substring(0, query) : path)
+					+ (path.contains("watch=true") ? " (watch)" : "");
+			calls.merge(key, 1, Integer::sum);
+		}
+		return calls;
+	}
+
+	private void writeReport(List<String> lines) throws IOException {
+		Path dir = Path.of("target", "load-reports");
+		Files.createDirectories(dir);
+		Files.write(dir.resolve(LABEL + ".txt"), lines);
+	}
+
+	private static final class PhaseResult {
+		private final long[] latencies;
+		private final AtomicInteger next = new AtomicInteger();
+		private final AtomicInteger errors = new AtomicInteger();
+		private long elapsedNanos;
+
+		private PhaseResult(int capacity) {
+			latencies = new long[capacity];
+		}
+
+		private void record(long nanos) {
+			latencies[next.getAndIncrement()] = nanos;
+		}
+
+		private int requests() {
+			return next.get();
+		}
+
+		private double percentile(double p) {
+			long[] sorted = Arrays.copyOf(latencies, requests());
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+			return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+		}
+
+		private double throughput() {
+			return requests() / (elapsedNanos / 1_000_000_000.0);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.PodResponse;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnableKubernetesMockClient(crud = true)
+class DeploymentCacheTest {
+	KubernetesMockServer server;
+	KubernetesClient client;
+
+	private DeploymentCache cache;
+
+	@BeforeEach
+	void setUp() {
+		for (String namespace : List.of("team-a", "team-b")) {
+			client.apps().deployments().inNamespace(namespace).resource(new DeploymentBuilder()
+					.withNewMetadata().withName("web").addToLabels("app", "web").endMetadata()
+					.withNewSpec().withReplicas(1).endSpec()
+					.build()).create();
+		}
+		cache = new DeploymentCache(client, new ConsoleProperties());
+	}
+
+	@AfterEach
+	void tearDown() {
+		cache.stop();
+	}
+
+	@Test
+	void startsInformersOnlyForNamespacesInUse() throws InterruptedException {
+		assertThat(cache.namespaces()).isEmpty();
+		assertThat(cache.isSynced()).isFalse();
+
+		awaitSynced("team-a");
+
+		assertThat(cache.namespaces()).containsExactly("team-a");
+		assertThat(cache.synced("team-a").orElseThrow().deployments()).singleElement()
+				.satisfies(d -> assertThat(d.getMetadata().getNamespace()).isEqualTo("team-a"));
+		assertThat(cache.deploymentCount()).isEqualTo(1);
+	}
+
+	@Test
+	void evictsNamespacesWithoutBlueprints() throws InterruptedException {
+		awaitSynced("team-a");
+		awaitSynced("team-b");
+		assertThat(cache.deploymentCount()).isEqualTo(2);
+
+		cache.retainNamespaces(List.of("team-b"));
+
+		assertThat(cache.namespaces()).containsExactly("team-b");
+		assertThat(cache.deploymentCount()).isEqualTo(1);
+	}
+
+	@Test
+	void viewTakenBeforeEvictionStaysReadable() throws InterruptedException {
+		awaitSynced("team-a");
+		DeploymentCache.NamespaceView view = cache.synced("team-a").orElseThrow();
+
+		cache.retainNamespaces(List.of());
+
+		assertThat(view.deployment("web")).isNotNull();
+		assertThat(view.resourceVersion()).isNotNull();
+		assertThat(cache.deployment("team-a", "web")).isNull();
+		assertThat(cache.service("team-a", "web")).isNull();
+		assertThat(cache.namespaces()).isEmpty();
+	}
+
+	@Test
+	void resourceVersionFollowsWatchEvents() throws InterruptedException {
+		awaitSynced("team-a");
+		String version = cache.synced("team-a").orElseThrow().resourceVersion();
+
+		client.apps().deployments().inNamespace("team-a").withName("web").edit(d -> {
+			d.getSpec().setReplicas(2);
+			return d;
+		});
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (cache.synced("team-a").orElseThrow().resourceVersion().equals(version) && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(cache.synced("team-a").orElseThrow().resourceVersion()).isNotEqualTo(version);
+	}
+
+	@Test
+	void servesPodsByAppLabelFromMemory() throws InterruptedException {
+		for (int i = 0; i < 3; i++) {
+			client.pods().inNamespace("team-a").resource(new PodBuilder()
+					.withNewMetadata().withName("web-" + i).addToLabels("app", i < 2 ? "web" : "api").endMetadata()
+					.withNewSpec().withNodeName("node-" + i).endSpec()
+					.withNewStatus()
+					.withPhase("Running")
+					.addNewContainerStatus()
+					.withName("web").withReady(i != 1).withRestartCount(i == 1 ? 7 : 0)
+					.withNewState().withNewWaiting().withReason(i == 1 ? "CrashLoopBackOff" : null).endWaiting().endState()
+					.endContainerStatus()
+					.endStatus()
+					.build()).create();
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (cache.podsSynced("team-a").isEmpty() && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		int before = server.getRequestCount();
+
+		List<PodResponse> pods = cache.podsSynced("team-a").orElseThrow().podsForApp("web").stream()
+				.map(DeploymentService::toPodResponse)
+				.sorted(Comparator.comparing(PodResponse::getName))
+				.toList();
+
+		assertThat(server.getRequestCount()).isEqualTo(before);
+		assertThat(pods).extracting(PodResponse::getName).containsExactly("web-0", "web-1");
+		assertThat(pods.get(1).isReady()).isFalse();
+		assertThat(pods.get(1).getRestarts()).isEqualTo(7);
+		assertThat(pods.get(1).getNode()).isEqualTo("node-1");
+		assertThat(pods.get(1).getContainers()).singleElement()
+				.satisfies(c -> assertThat(c.getReason()).isEqualTo("CrashLoopBackOff"));
+		assertThat(cache.podCount()).isEqualTo(3);
+	}
+
+	private void awaitSynced(String namespace) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!cache.isSynced(namespace) && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(cache.isSynced(namespace)).isTrue();
+	}
+}
@@ -0,0 +1,169 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.ActiveDeploymentResponse;
+import com.jonathan.spring_boot.req_res.DeploymentEvent;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@EnableKubernetesMockClient(crud = true)
+class DeploymentEventPublisherTest {
+	KubernetesClient client;
+
+	private ConsoleProperties properties;
+	private ClusterRegistry clusters;
+	private DeploymentCache cache;
+	private ApplicationRepository applicationRepository;
+	private DeploymentEventPublisher publisher;
+
+	@BeforeEach
+	void setUp() throws InterruptedException {
+		createDeployment("web");
+		properties = new ConsoleProperties();
+		properties.getStream().setBufferEvents(4);
+		cache = new DeploymentCache(client, properties);
+		clusters = new ClusterRegistry("default", List.of(
+				new ClusterRegistry.Cluster("default", client, cache, new ApiRateLimiter(0, 0), Duration.ofSeconds(5), false)),
+				Executors.newCachedThreadPool());
+		applicationRepository = mock(ApplicationRepository.class);
+		when(applicationRepository.findDistinctClusterNamespaces()).thenReturn(List.of(new ClusterNamespace(null, "default")));
+		publisher = new DeploymentEventPublisher(clusters, applicationRepository, properties);
+		publisher.start();
+		awaitTrue(() -> cache.isSynced("default"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		publisher.stop();
+		clusters.close();
+	}
+
+	@Test
+	void sendsSnapshotThenDeltas() throws InterruptedException {
+		RecordingEmitter emitter = new RecordingEmitter(null);
+		publisher.subscribe(emitter);
+
+		createDeployment("api");
+
+		awaitTrue(() -> emitter.events.size() >= 2);
+		assertThat(emitter.events.get(0).name()).isEqualTo("snapshot");
+		assertThat((List<?>) emitter.events.get(0).data()).singleElement()
+				.extracting(row -> ((ActiveDeploymentResponse) row).getName()).isEqualTo("web");
+		assertThat(emitter.events.get(1).name()).isEqualTo("deployment");
+		DeploymentEvent delta = (DeploymentEvent) emitter.events.get(1).data();
+		assertThat(delta.getType()).isEqualTo(DeploymentEvent.Type.ADDED);
+		assertThat(delta.getDeployment().getName()).isEqualTo("api");
+	}
+
+	@Test
+	void disconnectsSlowSubscriberWithoutDelayingOthers() throws InterruptedException {
+		CountDownLatch stuck = new CountDownLatch(1);
+		RecordingEmitter slow = new RecordingEmitter(stuck);
+		RecordingEmitter fast = new RecordingEmitter(null);
+		publisher.subscribe(slow);
+		publisher.subscribe(fast);
+
+		for (int i = 0; i < 10; i++) {
+			createDeployment("app-" + i);
+		}
+
+		awaitTrue(() -> fast.events.size() == 11);
+		awaitTrue(() -> publisher.subscriberCount() == 1);
+		assertThat(slow.failed).isTrue();
+		assertThat(fast.failed).isFalse();
+		stuck.countDown();
+	}
+
+	@Test
+	void holdsTheSnapshotUntilEveryBlueprintNamespaceHasSynced() throws InterruptedException {
+		client.apps().deployments().inNamespace("team-b").resource(new DeploymentBuilder()
+				.withNewMetadata().withName("billing").addToLabels("app", "billing").endMetadata()
+				.withNewSpec().withReplicas(1).endSpec()
+				.build()).create();
+		when(applicationRepository.findDistinctClusterNamespaces()).thenReturn(List.of(
+				new ClusterNamespace(null, "default"), new ClusterNamespace(null, "team-b")));
+		properties.getStream().setHeartbeat(Duration.ofMillis(50));
+		DeploymentEventPublisher retrying = new DeploymentEventPublisher(clusters, applicationRepository, properties);
+		retrying.start();
+		try {
+			RecordingEmitter emitter = new RecordingEmitter(null);
+			retrying.subscribe(emitter);
+
+			awaitTrue(() -> emitter.events.stream().anyMatch(sent -> "snapshot".equals(sent.name())));
+			Sent snapshot = emitter.events.stream().filter(sent -> "snapshot".equals(sent.name())).findFirst().orElseThrow();
+			assertThat((List<?>) snapshot.data())
+					.extracting(row -> ((ActiveDeploymentResponse) row).getName())
+					.containsExactlyInAnyOrder("web", "billing");
+			assertThat(emitter.events.stream().filter(sent -> "snapshot".equals(sent.name()))).hasSize(1);
+		} finally {
+			retrying.stop();
+		}
+	}
+
+	private void createDeployment(String name) {
+		client.apps().deployments().inNamespace("default").resource(new DeploymentBuilder()
+				.withNewMetadata().withName(name).addToLabels("app", name).endMetadata()
+				.withNewSpec().withReplicas(1).endSpec()
+				.build()).create();
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+
+	private record Sent(String name, Object data) {
+	}
+
+	// Records what would go on the wire; with a latch the first send blocks like a client that stopped reading
+	private static final class RecordingEmitter extends SseEmitter {
+		private final List<Sent> events = new CopyOnWriteArrayList<>();
+		private final CountDownLatch blockUntil;
+		private volatile boolean failed;
+
+		private RecordingEmitter(CountDownLatch blockUntil) {
+			this.blockUntil = blockUntil;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) {
+			if (blockUntil != null) {
+				try {
+					blockUntil.await(30, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			List<Object> parts = builder.build().stream().map(DataWithMediaType::getData).toList();
+			String text = parts.stream().filter(String.class::isInstance).map(String.class::cast).collect(Collectors.joining());
+			String name = text.startsWith("event:") ? text.substring(6, text.indexOf('\n')) : null;
+			events.add(new Sent(name, parts.stream().filter(part -> !(part instanceof String)).findFirst().orElse(null)));
+		}
+
+		@Override
+		public void completeWithError(Throwable ex) {
+			failed = true;
+			super.completeWithError(ex);
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.ActiveDeploymentResponse;
+import com.jonathan.spring_boot.req_res.BulkAction;
+import com.jonathan.spring_boot.req_res.BulkActionRequest;
+import com.jonathan.spring_boot.req_res.DeploymentOutcome;
+import com.jonathan.spring_boot.req_res.DeploymentResult;
+import com.jonathan.spring_boot.req_res.DriftResponse;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@EnableKubernetesMockClient(crud = true)
+class DeploymentServiceTest {
+	private static final int APP_COUNT = 25;
+
+	KubernetesMockServer server;
+	KubernetesClient client;
+
+	private ApplicationRepository applicationRepository;
+	private DeploymentService deploymentService;
+
+	@BeforeEach
+	void setUp() {
+		ConsoleProperties properties = new ConsoleProperties();
+		properties.getCache().setEnabled(false);
+
+		applicationRepository = mock(ApplicationRepository.class);
+		ClusterRegistry clusters = new ClusterRegistry("default", List.of(new ClusterRegistry.Cluster(
+				"default", client, new DeploymentCache(client, properties), new ApiRateLimiter(0, 0), Duration.ofSeconds(5), false)),
+				Executors.newCachedThreadPool());
+		BlueprintCache blueprintCache = new BlueprintCache(applicationRepository, mock(JdbcTemplate.class), properties, new SimpleMeterRegistry());
+		deploymentService = new DeploymentService(clusters, applicationRepository, blueprintCache, Executors.newSingleThreadExecutor(), new KubernetesApiCalls(new SimpleMeterRegistry()));
+
+		List<Application> apps = new ArrayList<>();
+		for (int i = 0; i < APP_COUNT; i++) {
+			String name = "app-" + i;
+			Application app = Application.builder()
+					.id(UUID.randomUUID())
+					.name(name)
+					.image("nginx:1.27")
+					.desiredReplicas(1)
+					.containerPort(80)
+					.serviceEnabled(i % 2 == 0)
+					.resources_cpu("250m")
+					.resources_ram("128Mi")
+					.build();
+			apps.add(app);
+			client.apps().deployments().inNamespace("default").resource(DeploymentService.buildDeployment(app)).create();
+			if (i % 2 == 0) {
+				client.services().inNamespace("default").resource(new ServiceBuilder()
+						.withNewMetadata().withName(name).addToLabels("app", name).endMetadata()
+						.withNewSpec().addToSelector("app", name).addNewPort().withPort(80).endPort().endSpec()
+						.build()).create();
+			}
+		}
+		when(applicationRepository.findAll()).thenReturn(apps);
+		when(applicationRepository.findDistinctClusterNamespaces()).thenReturn(List.of(new ClusterNamespace(null, "default")));
+	}
+
+	@Test
+	void listDeploymentsUsesOneListPerKind() {
+		int before = server.getRequestCount();
+
+		List<ActiveDeploymentResponse> deployments = deploymentService.listDeployments().items();
+
+		assertThat(server.getRequestCount() - before).isEqualTo(2);
+		assertThat(deployments).hasSize(APP_COUNT);
+		assertThat(deployments).filteredOn(ActiveDeploymentResponse::isServiceEnabled).hasSize((APP_COUNT + 1) / 2);
+	}
+
+	@Test
+	void deploymentsVersionMovesOnlyWhenTheClusterChanges() {
+		String version = deploymentService.deploymentsVersion();
+		assertThat(version).isNotNull().isEqualTo(deploymentService.deploymentsVersion());
+
+		client.apps().deployments().inNamespace("default").withName("app-0").edit(d -> {
+			d.getSpec().setReplicas(3);
+			return d;
+		});
+
+		assertThat(deploymentService.deploymentsVersion()).isNotEqualTo(version);
+	}
+
+	@Test
+	void listActiveDeploymentsUsesSingleDeploymentList() {
+		int before = server.getRequestCount();
+
+		List<ActiveDeploymentResponse> active = deploymentService.listActiveDeploymentsWithDbInfo().items();
+
+		assertThat(server.getRequestCount() - before).isEqualTo(1);
+		assertThat(active).hasSize(APP_COUNT);
+	}
+
+	@Test
+	void deployAllReportsPerApplicationOutcome() {
+		List<Application> apps = new ArrayList<>(applicationRepository.findAll());
+		apps.get(0).setImage("nginx:1.28");
+		apps.add(Application.builder().id(UUID.randomUUID()).name("fresh").image("nginx:1.27")
+				.desiredReplicas(1).containerPort(80).serviceEnabled(false)
+				.resources_cpu("250m").resources_ram("128Mi").build());
+		apps.add(Application.builder().id(UUID.randomUUID()).name("broken").image("")
+				.desiredReplicas(1).containerPort(80).serviceEnabled(false).build());
+		when(applicationRepository.findAll()).thenReturn(apps);
+
+		List<DeploymentResult> results = deploymentService.deployAllApplications();
+
+		assertThat(results).hasSize(APP_COUNT + 2);
+		assertThat(results).filteredOn(r -> r.getOutcome() == DeploymentOutcome.UNCHANGED).hasSize(APP_COUNT - 1);
+		assertThat(results).filteredOn(r -> r.getName().equals("app-0"))
+				.singleElement().extracting(DeploymentResult::getOutcome).isEqualTo(DeploymentOutcome.UPDATED);
+		assertThat(results).filteredOn(r -> r.getName().equals("fresh"))
+				.singleElement().extracting(DeploymentResult::getOutcome).isEqualTo(DeploymentOutcome.CREATED);
+		assertThat(results).filteredOn(r -> r.getName().equals("broken"))
+				.singleElement().extracting(DeploymentResult::getOutcome).isEqualTo(DeploymentOutcome.FAILED);
+		assertThat(client.apps().deployments().inNamespace("default").withName("fresh").get()).isNotNull();
+	}
+
+	@Test
+	void redeployMovesTheServiceToTheNewPort() {
+		Application app = applicationRepository.findAll().get(0);
+		when(applicationRepository.findById(app.getId())).thenReturn(Optional.of(app));
+		client.services().inNamespace("default").withName(app.getName()).edit(s -> new ServiceBuilder(s)
+				.editSpec().withType("NodePort").endSpec().build());
+		app.setContainerPort(8080);
+
+		assertThat(deploymentService.createDeployment(app.getId())).isEqualTo(DeploymentOutcome.UPDATED);
+
+		Service svc = client.services().inNamespace("default").withName(app.getName()).get();
+		assertThat(svc.getSpec().getType()).isEqualTo("NodePort");
+		assertThat(svc.getSpec().getPorts()).singleElement().satisfies(port -> {
+			assertThat(port.getPort()).isEqualTo(8080);
+			assertThat(port.getTargetPort().getIntVal()).isEqualTo(8080);
+		});
+	}
+
+	@Test
+	void reconcileOnlyTouchesDriftedDeployments() {
+		Application app = Application.builder().id(UUID.randomUUID()).name("drifting").image("nginx:1.27")
+				.desiredReplicas(1).containerPort(80).serviceEnabled(false)
+				.resources_cpu("250m").resources_ram("128Mi").build();
+		when(applicationRepository.findById(app.getId())).thenReturn(Optional.of(app));
+		deploymentService.createDeployment(app.getId());
+
+		assertThat(deploymentService.reconcile(app.getId())).isFalse();
+
+		app.setImage("nginx:1.28");
+		assertThat(deploymentService.reconcile(app.getId())).isTrue();
+		assertThat(client.apps().deployments().inNamespace("default").withName("drifting").get()
+				.getSpec().getTemplate().getSpec().getContainers().get(0).getImage()).isEqualTo("nginx:1.28");
+		assertThat(deploymentService.reconcile(app.getId())).isFalse();
+	}
+
+	@Test
+	void driftListsOnlyDeploymentsWhoseHashDiffers() {
+		List<Application> apps = applicationRepository.findAll();
+		apps.get(3).setImage("nginx:1.28");
+		int before = server.getRequestCount();
+
+		List<DriftResponse> drift = deploymentService.listDrift().items();
+
+		assertThat(server.getRequestCount() - before).isEqualTo(1);
+		assertThat(drift).singleElement().extracting(DriftResponse::getName).isEqualTo("app-3");
+	}
+
+	@Test
+	void bulkStopBySelectorChecksExistenceWithOneList() {
+		int before = server.getRequestCount();
+		List<DeploymentResult> results = deploymentService.bulkAction(BulkActionRequest.builder()
+				.nameSelector("app-1*")
+				.action(BulkAction.STOP)
+				.build());
+
+		// app-1 and app-10 .. app-19
+		assertThat(results).hasSize(11).allMatch(r -> r.getOutcome() == DeploymentOutcome.SUCCEEDED);
+		// One deployment list for existence, then one scale per matched application; no per-app GETs
+		assertThat(server.getRequestCount() - before).isEqualTo(1 + 11);
+		assertThat(client.apps().deployments().inNamespace("default").withName("app-12").get()
+				.getSpec().getReplicas()).isZero();
+		assertThat(client.apps().deployments().inNamespace("default").withName("app-2").get()
+				.getSpec().getReplicas()).isEqualTo(1);
+	}
+
+	@Test
+	void honorsBlueprintNamespace() {
+		Application app = Application.builder().id(UUID.randomUUID()).name("app-1").namespace("team-a")
+				.image("nginx:1.28").desiredReplicas(2).containerPort(80).serviceEnabled(true)
+				.resources_cpu("250m").resources_ram("128Mi").build();
+		when(applicationRepository.findById(app.getId())).thenReturn(Optional.of(app));
+		when(applicationRepository.findAll()).thenReturn(List.of(app));
+		when(applicationRepository.findDistinctClusterNamespaces()).thenReturn(List.of(new ClusterNamespace(null, "team-a")));
+
+		assertThat(deploymentService.createDeployment(app.getId())).isEqualTo(DeploymentOutcome.CREATED);
+
+		assertThat(client.apps().deployments().inNamespace("team-a").withName("app-1").get()).isNotNull();
+		assertThat(client.services().inNamespace("team-a").withName("app-1").get()).isNotNull();
+		// the same name in "default" belongs to someone else and is left alone
+		assertThat(client.apps().deployments().inNamespace("default").withName("app-1").get()
+				.getSpec().getTemplate().getSpec().getContainers().get(0).getImage()).isEqualTo("nginx:1.27");
+		assertThat(deploymentService.listActiveDeploymentsWithDbInfo().items()).singleElement()
+				.satisfies(r -> assertThat(r.getNamespace()).isEqualTo("team-a"))
+				.satisfies(r -> assertThat(r.getSpecReplicas()).isEqualTo(2));
+		assertThat(deploymentService.listDeployments().items()).extracting(ActiveDeploymentResponse::getNamespace).containsOnly("team-a");
+
+		assertThat(deploymentService.stopDeployment(app.getId())).isTrue();
+		assertThat(client.apps().deployments().inNamespace("team-a").withName("app-1").get().getSpec().getReplicas()).isZero();
+		assertThat(client.apps().deployments().inNamespace("default").withName("app-1").get().getSpec().getReplicas()).isEqualTo(1);
+	}
+
+	@Test
+	void bulkActionReportsUnknownApplications() {
+		List<Application> apps = applicationRepository.findAll();
+		UUID unknown = UUID.randomUUID();
+		when(applicationRepository.findAllById(List.of(apps.get(0).getId(), unknown))).thenReturn(List.of(apps.get(0)));
+
+		List<DeploymentResult> results = deploymentService.bulkAction(BulkActionRequest.builder()
+				.applicationIds(List.of(apps.get(0).getId(), unknown))
+				.action(BulkAction.RESTART)
+				.build());
+
+		assertThat(results).extracting(DeploymentResult::getOutcome)
+				.containsExactlyInAnyOrder(DeploymentOutcome.SUCCEEDED, DeploymentOutcome.NOT_FOUND);
+	}
+}
@@ -0,0 +1,35 @@
+package com.jonathan.spring_boot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class EnvConverterTest {
+	private final EnvConverter converter = new EnvConverter();
+
+	@Test
+	void legacyRowsReadWithoutFailing() {
+		assertThat(converter.convertToEntityAttribute("[\"A=1\", \"B=2\"]")).isEmpty();
+		assertThat(converter.convertToEntityAttribute("\"A=1\"")).isEmpty();
+		assertThat(converter.convertToEntityAttribute("not json")).isEmpty();
+		assertThat(converter.convertToEntityAttribute(null)).isEmpty();
+
+		assertThat(converter.convertToEntityAttribute(
+				"{\"PORT\": 8080, \"DEBUG\": true, \"NESTED\": {\"a\": 1}, \"LIST\": [1], \"EMPTY\": null, \"NAME\": \"web\"}"))
+				.containsExactly(entry("PORT", "8080"), entry("DEBUG", "true"), entry("EMPTY", ""), entry("NAME", "web"));
+	}
+
+	@Test
+	void roundTripsAFlatMap() {
+		Map<String, String> env = new LinkedHashMap<>();
+		env.put("B", "2");
+		env.put("A", "with \"quotes\"");
+
+		assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(env))).containsExactlyEntriesOf(env);
+		assertThat(converter.convertToDatabaseColumn(null)).isNull();
+	}
+}
@@ -0,0 +1,64 @@
+package com.jonathan.spring_boot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ListQueryTest {
+	private final ConsoleProperties.Pagination config = new ConsoleProperties.Pagination();
+
+	@Test
+	void unpagedWithoutParameters() {
+		assertThat(ListQuery.of(null, null, null, null, config).paged()).isFalse();
+		assertThat(ListQuery.of(null, null, "web", null, config).paged()).isTrue();
+		assertThat(ListQuery.of(5000, null, null, null, config).limit()).isEqualTo(config.getMaxLimit());
+		assertThatThrownBy(() -> ListQuery.of(0, null, null, null, config)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ListQuery.of(null, "not base64!", null, null, config)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void walksEveryRowOnceAcrossPages() {
+		List<String> rows = IntStream.range(0, 25).mapToObj(i -> String.format("app-%02d", 24 - i)).toList();
+		ListQuery query = ListQuery.of(10, null, null, null, config);
+		List<String> seen = new java.util.ArrayList<>();
+		int pages = 0;
+		while (true) {
+			KeysetPage<String> page = query.page(rows, Function.identity(), row -> true);
+			seen.addAll(page.items());
+			pages++;
+			if (page.nextCursor() == null) break;
+			query = ListQuery.of(10, page.nextCursor(), null, null, config);
+		}
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(seen).hasSize(25).isSorted().doesNotHaveDuplicates();
+	}
+
+	@Test
+	void filtersByPrefix() {
+		ListQuery query = ListQuery.of(null, null, "web", "nginx:", config);
+
+		assertThat(query.matches("web-1", "nginx:1.27")).isTrue();
+		assertThat(query.matches("api", "nginx:1.27")).isFalse();
+		assertThat(query.matches("web-1", "redis:7")).isFalse();
+		assertThat(ListQuery.likePrefix("a_b%c\\")).isEqualTo("a\\_b\\%c\\\\%");
+	}
+
+	@Test
+	void etagMatchesOnlyTheSameVersionAndQuery() {
+		ListQuery first = ListQuery.of(10, null, null, null, config);
+		ListQuery other = ListQuery.of(20, null, null, null, config);
+		String etag = first.etag("3@2026-01-01T00:00:00Z");
+
+		assertThat(ListQuery.notModified(etag, first.etag("3@2026-01-01T00:00:00Z"))).isTrue();
+		assertThat(ListQuery.notModified("\"x\", " + etag.substring(2), etag)).isTrue();
+		assertThat(ListQuery.notModified(etag, first.etag("4@2026-01-01T00:00:00Z"))).isFalse();
+		assertThat(ListQuery.notModified(etag, other.etag("3@2026-01-01T00:00:00Z"))).isFalse();
+		assertThat(ListQuery.notModified(null, etag)).isFalse();
+	}
+}
@@ -0,0 +1,248 @@
+package com.jonathan.spring_boot;
+
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodListBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@EnableKubernetesMockClient
+class LogTailerTest {
+	KubernetesMockServer server;
+	KubernetesClient client;
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private ConsoleProperties properties;
+	private ApplicationRepository applicationRepository;
+	private LogTailer tailer;
+	private Application app;
+
+	@BeforeEach
+	void setUp() {
+		properties = new ConsoleProperties();
+		properties.getCache().setEnabled(false);
+		properties.getLogs().setTailLines(10);
+
+		applicationRepository = mock(ApplicationRepository.class);
+		ClusterRegistry clusters = new ClusterRegistry("default", List.of(new ClusterRegistry.Cluster(
+				"default", client, new DeploymentCache(client, properties), new ApiRateLimiter(0, 0), Duration.ofSeconds(5), false)),
+				executor);
+		KubernetesApiCalls kubernetesApi = new KubernetesApiCalls(new SimpleMeterRegistry());
+		BlueprintCache blueprintCache = new BlueprintCache(applicationRepository, mock(JdbcTemplate.class), properties, new SimpleMeterRegistry());
+		DeploymentService deploymentService = new DeploymentService(clusters, applicationRepository, blueprintCache, executor, kubernetesApi);
+		tailer = new LogTailer(applicationRepository, clusters, deploymentService, executor, kubernetesApi, properties);
+
+		app = Application.builder().name("web").image("nginx:1.27").build();
+		server.expect().get().withPath("/api/v1/namespaces/default/pods?labelSelector=app%3Dweb")
+				.andReturn(200, new PodListBuilder()
+						.addToItems(pod("web-a"), pod("web-b"))
+						.build())
+				.always();
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void mergesEveryPodIntoOneStream() throws IOException {
+		expectLog("web-a", lines("a", 3));
+		expectLog("web-b", lines("b", 2));
+		RecordingSink sink = new RecordingSink(0);
+
+		tailer.open(app, null, false, sink).run();
+
+		assertThat(sink.pods).containsExactly("web-a", "web-b");
+		assertThat(sink.lines.get("web-a")).containsExactly("a-0", "a-1", "a-2");
+		assertThat(sink.lines.get("web-b")).containsExactly("b-0", "b-1");
+		assertThat(sink.dropped.get()).isZero();
+	}
+
+	@Test
+	void dropsLinesInsteadOfBufferingForSlowClient() throws IOException {
+		properties.getLogs().setBufferLines(5);
+		expectLog("web-a", lines("a", 500));
+		expectLog("web-b", lines("b", 500));
+		// the first write stalls long enough for both pods to overrun their queues
+		RecordingSink sink = new RecordingSink(500);
+
+		tailer.open(app, null, false, sink).run();
+
+		int delivered = sink.lines.values().stream().mapToInt(List::size).sum();
+		assertThat(sink.dropped.get()).isPositive();
+		assertThat(delivered + sink.dropped.get()).isEqualTo(1000);
+	}
+
+	@Test
+	void applicationWithoutPodsStaysOpenOnHeartbeats() throws Exception {
+		properties.getStream().setHeartbeat(Duration.ofMillis(20));
+		Application idle = Application.builder().name("idle").image("nginx:1.27").build();
+		server.expect().get().withPath("/api/v1/namespaces/default/pods?labelSelector=app%3Didle")
+				.andReturn(200, new PodListBuilder().build())
+				.always();
+		RecordingSink sink = new RecordingSink(0);
+		LogTailer.Session session = tailer.open(idle, null, true, sink);
+
+		Future<?> running = executor.submit(() -> {
+			session.run();
+			return null;
+		});
+		Thread.sleep(200);
+
+		assertThat(running).isNotDone();
+		assertThat(sink.pods).isEmpty();
+		assertThat(sink.heartbeats.get()).isGreaterThanOrEqualTo(2);
+
+		session.close();
+		running.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void concurrentReservationsNeverExceedMaxSessions() throws Exception {
+		properties.getLogs().setMaxSessions(3);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> attempts = new ArrayList<>();
+		for (int i = 0; i < 32; i++) {
+			attempts.add(executor.submit(() -> {
+				start.await();
+				return tailer.reserve();
+			}));
+		}
+		start.countDown();
+
+		int granted = 0;
+		for (Future<Boolean> attempt : attempts) {
+			if (attempt.get(5, TimeUnit.SECONDS)) {
+				granted++;
+			}
+		}
+		assertThat(granted).isEqualTo(3);
+	}
+
+	@Test
+	void streamGivesItsSlotBack() throws Exception {
+		properties.getLogs().setMaxSessions(1);
+		UUID unknown = UUID.randomUUID();
+		UUID known = UUID.randomUUID();
+		when(applicationRepository.findById(unknown)).thenReturn(Optional.empty());
+		when(applicationRepository.findById(known)).thenReturn(Optional.of(app));
+		expectLog("web-a", lines("a", 1));
+		expectLog("web-b", lines("b", 1));
+
+		assertThat(tailer.reserve()).isTrue();
+		assertThat(tailer.stream(unknown, null, true)).isEmpty();
+
+		assertThat(tailer.reserve()).isTrue();
+		assertThat(tailer.stream(known, null, false)).isPresent();
+		assertThat(tailer.reserve()).isFalse();
+
+		// both pods' logs end, the session closes and frees the slot
+		long deadline = System.currentTimeMillis() + 5000;
+		boolean reserved = false;
+		while (!reserved && System.currentTimeMillis() < deadline) {
+			reserved = tailer.reserve();
+			Thread.sleep(10);
+		}
+		assertThat(reserved).isTrue();
+	}
+
+	@Test
+	void cutsOverlongLines() throws IOException {
+		String longLine = "x".repeat(100);
+		ByteArrayInputStream in = new ByteArrayInputStream((longLine + "\nshort\r\nlast").getBytes(StandardCharsets.UTF_8));
+
+		assertThat(LogTailer.readLine(in, 10)).isEqualTo("xxxxxxxxxx [truncated]");
+		assertThat(LogTailer.readLine(in, 10)).isEqualTo("short");
+		assertThat(LogTailer.readLine(in, 10)).isEqualTo("last");
+		assertThat(LogTailer.readLine(in, 10)).isNull();
+	}
+
+	private void expectLog(String pod, String body) {
+		server.expect().get().withPath("/api/v1/namespaces/default/pods/" + pod + "/log?pretty=false&container=web&tailLines=10")
+				.andReturn(200, body)
+				.once();
+	}
+
+	private static String lines(String prefix, int count) {
+		return IntStream.range(0, count).mapToObj(i -> prefix + "-" + i + "\n").collect(Collectors.joining());
+	}
+
+	private static io.fabric8.kubernetes.api.model.Pod pod(String name) {
+		return new PodBuilder()
+				.withNewMetadata().withName(name).withNamespace("default").addToLabels("app", "web").endMetadata()
+				.withNewSpec().addNewContainer().withName("web").withImage("nginx:1.27").endContainer().endSpec()
+				.build();
+	}
+
+	private static final class RecordingSink implements LogTailer.LogSink {
+		private final long firstWriteDelayMillis;
+		private final List<String> pods = new ArrayList<>();
+		private final Map<String, List<String>> lines = new ConcurrentHashMap<>();
+		private final AtomicLong dropped = new AtomicLong();
+		private final AtomicInteger heartbeats = new AtomicInteger();
+		private boolean first = true;
+
+		private RecordingSink(long firstWriteDelayMillis) {
+			this.firstWriteDelayMillis = firstWriteDelayMillis;
+		}
+
+		@Override
+		public void pods(List<String> pods) {
+			this.pods.addAll(pods);
+		}
+
+		@Override
+		public void line(String pod, String line) {
+			if (first) {
+				first = false;
+				try {
+					Thread.sleep(firstWriteDelayMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			lines.computeIfAbsent(pod, p -> Collections.synchronizedList(new ArrayList<>())).add(line);
+		}
+
+		@Override
+		public void dropped(String pod, long count) {
+			dropped.addAndGet(count);
+		}
+
+		@Override
+		public void heartbeat() {
+			heartbeats.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.ActiveDeploymentResponse;
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.kubernetes.client.server.mock.KubernetesCrudDispatcher;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.mockwebserver.Context;
+import io.fabric8.mockwebserver.MockWebServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two in-process apiservers plus one that accepts connections but never answers, standing in for
+ * an unreachable cluster.
+ */
+class MultiClusterTest {
+	private static final Duration TIMEOUT = Duration.ofMillis(500);
+
+	private KubernetesMockServer east;
+	private KubernetesMockServer west;
+	private ServerSocket hung;
+	private KubernetesClient eastClient;
+	private KubernetesClient westClient;
+	private ClusterRegistry clusters;
+	private ThreadPoolExecutor fanOutExecutor;
+	private ApplicationRepository applicationRepository;
+	private DeploymentService deploymentService;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		east = startServer();
+		west = startServer();
+		hung = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		eastClient = east.createClient();
+		westClient = west.createClient();
+		KubernetesClient hungClient = new KubernetesClientBuilder().withConfig(new ConfigBuilder(Config.empty())
+				.withMasterUrl("http://127.0.0.1:" + hung.getLocalPort())
+				.withRequestRetryBackoffLimit(0)
+				.build()).build();
+
+		ConsoleProperties properties = new ConsoleProperties();
+		properties.getCache().setEnabled(false);
+		fanOutExecutor = (ThreadPoolExecutor) Executors.newCachedThreadPool();
+		clusters = new ClusterRegistry("east", List.of(
+				new ClusterRegistry.Cluster("east", eastClient, new DeploymentCache(eastClient, properties), new ApiRateLimiter(0, 0), TIMEOUT, true),
+				new ClusterRegistry.Cluster("west", westClient, new DeploymentCache(westClient, properties), new ApiRateLimiter(0, 0), TIMEOUT, true),
+				new ClusterRegistry.Cluster("hung", hungClient, new DeploymentCache(hungClient, properties), new ApiRateLimiter(0, 0), TIMEOUT, true)),
+				fanOutExecutor);
+
+		applicationRepository = mock(ApplicationRepository.class);
+		BlueprintCache blueprintCache = new BlueprintCache(applicationRepository, mock(JdbcTemplate.class), properties, new SimpleMeterRegistry());
+		deploymentService = new DeploymentService(clusters, applicationRepository, blueprintCache, Executors.newFixedThreadPool(4),
+				new KubernetesApiCalls(new SimpleMeterRegistry()));
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		hung.close();
+		clusters.close();
+		east.destroy();
+		west.destroy();
+	}
+
+	@Test
+	void deploysToTheBlueprintCluster() {
+		Application app = application("web", "west");
+		when(applicationRepository.findById(app.getId())).thenReturn(Optional.of(app));
+
+		deploymentService.createDeployment(app.getId());
+
+		assertThat(westClient.apps().deployments().inNamespace("default").withName("web").get()).isNotNull();
+		assertThat(eastClient.apps().deployments().inNamespace("default").withName("web").get()).isNull();
+	}
+
+	@Test
+	void fanOutMergesAnsweringClustersAndCutsOffTheHungOne() {
+		Application onEast = application("orders", null);
+		Application onWest = application("billing", "west");
+		Application onHung = application("search", "hung");
+		for (Application app : List.of(onEast, onWest)) {
+			when(applicationRepository.findById(app.getId())).thenReturn(Optional.of(app));
+			deploymentService.createDeployment(app.getId());
+		}
+		when(applicationRepository.findAll()).thenReturn(List.of(onEast, onWest, onHung));
+
+		long started = System.nanoTime();
+		ClusterRegistry.FanOut<ActiveDeploymentResponse> active = deploymentService.listActiveDeploymentsWithDbInfo();
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+		assertThat(active.items())
+				.extracting(ActiveDeploymentResponse::getName, ActiveDeploymentResponse::getCluster)
+				.containsExactlyInAnyOrder(
+						tuple("orders", "east"),
+						tuple("billing", "west"));
+		assertThat(active.failures()).containsOnlyKeys("hung");
+		assertThat(elapsed).isLessThan(TIMEOUT.multipliedBy(4));
+	}
+
+	@Test
+	void timedOutReadsDoNotKeepTheirThreads() throws InterruptedException {
+		when(applicationRepository.findAll()).thenReturn(List.of(application("search", "hung")));
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(deploymentService.listActiveDeploymentsWithDbInfo().failures()).containsOnlyKeys("hung");
+		}
+
+		// The hung apiserver never answers, so only the interrupt can have ended the reads
+		long deadline = System.nanoTime() + TIMEOUT.toNanos();
+		while (fanOutExecutor.getActiveCount() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(fanOutExecutor.getActiveCount()).isZero();
+	}
+
+	@Test
+	void drainingOneClustersBudgetLeavesTheOthersAlone() throws Exception {
+		// One token each, the next one 1000s away
+		ClusterRegistry.Cluster busy = new ClusterRegistry.Cluster("east", eastClient, null, new ApiRateLimiter(0.001, 1), TIMEOUT, false);
+		ClusterRegistry.Cluster idle = new ClusterRegistry.Cluster("west", westClient, null, new ApiRateLimiter(0.001, 1), TIMEOUT, false);
+		KubernetesApiCalls kubernetesApi = new KubernetesApiCalls(new SimpleMeterRegistry());
+		kubernetesApi.call(busy, "get", "deployment", () -> null);
+
+		CompletableFuture<String> other = CompletableFuture.supplyAsync(() -> kubernetesApi.call(idle, "get", "deployment", () -> "answered"));
+
+		assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("answered");
+	}
+
+	@Test
+	void clusterEntriesOverrideTheDefaultRate() {
+		ConsoleProperties.Kubernetes kubernetes = new ConsoleProperties.Kubernetes();
+		ConsoleProperties.Cluster inherits = new ConsoleProperties.Cluster();
+		ConsoleProperties.Cluster unlimited = new ConsoleProperties.Cluster();
+		unlimited.setQps(0.0);
+
+		assertThat(K8sConfig.limiter(kubernetes, inherits).isEnabled()).isTrue();
+		assertThat(K8sConfig.limiter(kubernetes, inherits)).isNotSameAs(K8sConfig.limiter(kubernetes, inherits));
+		assertThat(K8sConfig.limiter(kubernetes, unlimited).isEnabled()).isFalse();
+	}
+
+	private static Application application(String name, String cluster) {
+		return Application.builder()
+				.id(UUID.randomUUID())
+				.name(name)
+				.cluster(cluster)
+				.image("nginx:1.27")
+				.desiredReplicas(1)
+				.containerPort(80)
+				.serviceEnabled(false)
+				.resources_cpu("250m")
+				.resources_ram("128Mi")
+				.build();
+	}
+
+	private static KubernetesMockServer startServer() {
+		KubernetesMockServer server = new KubernetesMockServer(
+				new Context(), new MockWebServer(), new HashMap<>(), new KubernetesCrudDispatcher(), false);
+		server.init();
+		return server;
+	}
+}
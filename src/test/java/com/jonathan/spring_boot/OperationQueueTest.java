@@ -0,0 +1,81 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.OperationResponse;
+import com.jonathan.spring_boot.req_res.OperationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OperationQueueTest {
+	private final DeploymentService deploymentService = mock(DeploymentService.class);
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+	private final OperationQueue queue = new OperationQueue(deploymentService, executor, new ConsoleProperties(), new SimpleMeterRegistry());
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void coalescesQueuedScalesToTheLatestTarget() throws Exception {
+		UUID appId = UUID.randomUUID();
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(deploymentService.startDeployment(eq(appId), anyInt())).thenAnswer(invocation -> {
+			if (invocation.<Integer>getArgument(1) == 1) {
+				running.countDown();
+				release.await(5, TimeUnit.SECONDS);
+			}
+			return true;
+		});
+		when(deploymentService.restartDeployment(appId)).thenReturn(true);
+
+		OperationResponse first = queue.scale(appId, 1);
+		assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+		OperationResponse second = queue.scale(appId, 2);
+		OperationResponse third = queue.scale(appId, 3);
+		OperationResponse restart = queue.restart(appId);
+		release.countDown();
+
+		assertThat(await(first).getStatus()).isEqualTo(OperationStatus.SUCCEEDED);
+		OperationResponse superseded = await(second);
+		assertThat(superseded.getStatus()).isEqualTo(OperationStatus.SUPERSEDED);
+		assertThat(superseded.getSupersededBy()).isEqualTo(third.getId());
+		assertThat(await(third).getStatus()).isEqualTo(OperationStatus.SUCCEEDED);
+		// a restart is a different kind of change and is never folded into a scale
+		assertThat(await(restart).getStatus()).isEqualTo(OperationStatus.SUCCEEDED);
+
+		verify(deploymentService).startDeployment(appId, 1);
+		verify(deploymentService, never()).startDeployment(appId, 2);
+		verify(deploymentService).startDeployment(appId, 3);
+		verify(deploymentService).restartDeployment(appId);
+	}
+
+	@Test
+	void reportsMissingDeploymentsAndFailures() throws Exception {
+		UUID missing = UUID.randomUUID();
+		UUID broken = UUID.randomUUID();
+		when(deploymentService.startDeployment(missing, 1)).thenReturn(false);
+		when(deploymentService.restartDeployment(broken)).thenThrow(new IllegalStateException("boom"));
+
+		assertThat(await(queue.scale(missing, 1)).getStatus()).isEqualTo(OperationStatus.NOT_FOUND);
+		OperationResponse failed = await(queue.restart(broken));
+		assertThat(failed.getStatus()).isEqualTo(OperationStatus.FAILED);
+		assertThat(failed.getMessage()).isEqualTo("boom");
+	}
+
+	private OperationResponse await(OperationResponse operation) throws Exception {
+		return queue.completion(operation.getId()).orElseThrow().get(5, TimeUnit.SECONDS);
+	}
+}
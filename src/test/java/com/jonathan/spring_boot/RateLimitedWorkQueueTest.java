@@ -0,0 +1,58 @@
+package com.jonathan.spring_boot;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitedWorkQueueTest {
+
+	@Test
+	void deduplicatesWaitingKeys() throws InterruptedException {
+		RateLimitedWorkQueue<String> queue = new RateLimitedWorkQueue<>(0, Duration.ofMillis(10), Duration.ofSeconds(1));
+		queue.add("a");
+		queue.add("a");
+		queue.add("b");
+
+		assertThat(queue.size()).isEqualTo(2);
+	}
+
+	@Test
+	void requeuesKeyAddedWhileProcessingOnlyAfterDone() throws InterruptedException {
+		RateLimitedWorkQueue<String> queue = new RateLimitedWorkQueue<>(0, Duration.ofMillis(10), Duration.ofSeconds(1));
+		queue.add("a");
+		String key = queue.take();
+		queue.add("a");
+		assertThat(queue.size()).isZero();
+
+		queue.done(key);
+		assertThat(queue.size()).isEqualTo(1);
+	}
+
+	@Test
+	void backsOffExponentiallyUpToMaxDelay() {
+		RateLimitedWorkQueue<String> queue = new RateLimitedWorkQueue<>(0, Duration.ofMillis(50), Duration.ofMillis(150));
+
+		assertThat(queue.backoff("a")).isEqualTo(Duration.ofMillis(50));
+		assertThat(queue.backoff("a")).isEqualTo(Duration.ofMillis(100));
+		// 200ms uncapped
+		assertThat(queue.backoff("a")).isEqualTo(Duration.ofMillis(150));
+		assertThat(queue.backoff("b")).isEqualTo(Duration.ofMillis(50));
+
+		queue.forget("a");
+		assertThat(queue.backoff("a")).isEqualTo(Duration.ofMillis(50));
+	}
+
+	@Test
+	void retriedKeyIsNotHandedOutBeforeItsBackoff() throws InterruptedException {
+		RateLimitedWorkQueue<String> queue = new RateLimitedWorkQueue<>(0, Duration.ofMillis(100), Duration.ofSeconds(1));
+		long started = System.nanoTime();
+
+		queue.retry("a");
+		queue.take();
+
+		// Only a lower bound: a loaded machine may hand the key out late, never early
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+	}
+}
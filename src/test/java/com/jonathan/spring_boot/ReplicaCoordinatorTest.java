@@ -0,0 +1,135 @@
+package com.jonathan.spring_boot;
+
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnableKubernetesMockClient(crud = true)
+class ReplicaCoordinatorTest {
+	KubernetesMockServer server;
+	KubernetesClient client;
+
+	private final List<ReplicaCoordinator> replicas = new ArrayList<>();
+	private final List<UUID> ids = IntStream.range(0, 500).mapToObj(i -> UUID.randomUUID()).toList();
+
+	@AfterEach
+	void tearDown() {
+		replicas.forEach(ReplicaCoordinator::stop);
+	}
+
+	@Test
+	void splitsApplicationsAcrossLiveReplicas() {
+		ReplicaCoordinator a = replica("console-a");
+		ReplicaCoordinator b = replica("console-b");
+		a.tick();
+		b.tick();
+		a.tick();
+
+		long ownedByA = ids.stream().filter(a::owns).count();
+		long ownedByB = ids.stream().filter(b::owns).count();
+		assertThat(ids).allMatch(id -> a.owns(id) != b.owns(id));
+		assertThat(ownedByA).isGreaterThan(100);
+		assertThat(ownedByB).isGreaterThan(100);
+		assertThat(a.status().getMembers()).containsExactly("console-a", "console-b");
+
+		// b shuts down and removes its member lease; a takes over b's slice
+		b.stop();
+		a.tick();
+
+		assertThat(ids).allMatch(a::owns);
+	}
+
+	@Test
+	void movesOnlyTheSliceOfTheReplicaThatLeft() {
+		ReplicaCoordinator a = replica("console-a");
+		ReplicaCoordinator b = replica("console-b");
+		ReplicaCoordinator c = replica("console-c");
+		a.tick();
+		b.tick();
+		c.tick();
+		a.tick();
+		List<UUID> ownedByABefore = ids.stream().filter(a::owns).toList();
+
+		c.stop();
+		a.tick();
+
+		// Consistent hashing: a keeps everything it had and only gains from c
+		assertThat(ids.stream().filter(a::owns).toList()).containsAll(ownedByABefore);
+	}
+
+	@Test
+	void ignoresExpiredMemberLeases() {
+		client.leases().inNamespace("default").resource(new LeaseBuilder()
+				.withNewMetadata()
+				.withName(ReplicaCoordinator.memberLeaseName("console-dead"))
+				.addToLabels(ReplicaCoordinator.MEMBER_LABEL, "true")
+				.endMetadata()
+				.withNewSpec()
+				.withHolderIdentity("console-dead")
+				.withLeaseDurationSeconds(15)
+				.withRenewTime(ZonedDateTime.now().minusMinutes(1))
+				.endSpec()
+				.build()).create();
+		ReplicaCoordinator a = replica("console-a");
+
+		a.tick();
+
+		assertThat(a.status().getMembers()).containsExactly("console-a");
+		assertThat(ids).allMatch(a::owns);
+	}
+
+	@Test
+	void electsOneLeaderAndHandsOverOnShutdown() throws InterruptedException {
+		ReplicaCoordinator a = replica("console-a");
+		ReplicaCoordinator b = replica("console-b");
+		a.start();
+		b.start();
+
+		awaitTrue(() -> a.isLeader() || b.isLeader());
+		ReplicaCoordinator leader = a.isLeader() ? a : b;
+		ReplicaCoordinator follower = leader == a ? b : a;
+		assertThat(follower.isLeader()).isFalse();
+
+		leader.stop();
+
+		awaitTrue(follower::isLeader);
+		assertThat(client.leases().inNamespace("default").withName("console-leader").get().getSpec().getHolderIdentity())
+				.isEqualTo(follower.status().getIdentity());
+	}
+
+	private ReplicaCoordinator replica(String identity) {
+		ConsoleProperties properties = new ConsoleProperties();
+		ConsoleProperties.Coordination coordination = properties.getCoordination();
+		coordination.setEnabled(true);
+		coordination.setNamespace("default");
+		coordination.setIdentity(identity);
+		coordination.setLeaseDuration(Duration.ofSeconds(2));
+		coordination.setRenewDeadline(Duration.ofMillis(1500));
+		coordination.setRetryPeriod(Duration.ofMillis(200));
+		ReplicaCoordinator replica = new ReplicaCoordinator(client, properties, new SimpleMeterRegistry());
+		replicas.add(replica);
+		return replica;
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean()) {
+			assertThat(System.currentTimeMillis()).as("condition met within 10s").isLessThan(deadline);
+			Thread.sleep(50);
+		}
+	}
+}
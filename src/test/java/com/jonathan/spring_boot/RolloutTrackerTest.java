@@ -0,0 +1,172 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.req_res.RolloutPhase;
+import com.jonathan.spring_boot.req_res.RolloutStatusResponse;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesCrudDispatcher;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.mockwebserver.Context;
+import io.fabric8.mockwebserver.MockWebServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@EnableKubernetesMockClient(crud = true)
+class RolloutTrackerTest {
+	KubernetesMockServer server;
+	KubernetesClient client;
+
+	private ApplicationRepository applicationRepository;
+	private RolloutTracker tracker;
+	private Application app;
+
+	@BeforeEach
+	void setUp() {
+		ConsoleProperties properties = new ConsoleProperties();
+		properties.getCache().setEnabled(false);
+
+		app = Application.builder()
+				.id(UUID.randomUUID())
+				.name("web")
+				.image("nginx:1.27")
+				.desiredReplicas(2)
+				.containerPort(80)
+				.resources_cpu("250m")
+				.resources_ram("128Mi")
+				.build();
+		applicationRepository = mock(ApplicationRepository.class);
+		when(applicationRepository.findById(app.getId())).thenReturn(Optional.of(app));
+
+		ClusterRegistry clusters = new ClusterRegistry("default", List.of(new ClusterRegistry.Cluster(
+				"default", client, new DeploymentCache(client, properties), new ApiRateLimiter(0, 0), Duration.ofSeconds(5), false)),
+				Executors.newCachedThreadPool());
+		tracker = new RolloutTracker(clusters, applicationRepository, new KubernetesApiCalls(new SimpleMeterRegistry()));
+		tracker.start();
+	}
+
+	@Test
+	void phaseFollowsGenerationAndReplicas() {
+		assertThat(RolloutTracker.phase(null)).isEqualTo(RolloutPhase.NOT_FOUND);
+		assertThat(RolloutTracker.phase(deployment(2, 1, 2, 2, 2))).isEqualTo(RolloutPhase.PROGRESSING);
+		assertThat(RolloutTracker.phase(deployment(2, 2, 1, 2, 2))).isEqualTo(RolloutPhase.PROGRESSING);
+		assertThat(RolloutTracker.phase(deployment(2, 2, 2, 3, 2))).isEqualTo(RolloutPhase.PROGRESSING);
+		assertThat(RolloutTracker.phase(deployment(2, 2, 2, 2, 1))).isEqualTo(RolloutPhase.PROGRESSING);
+		assertThat(RolloutTracker.phase(deployment(2, 2, 2, 2, 2))).isEqualTo(RolloutPhase.COMPLETE);
+
+		Deployment stuck = new DeploymentBuilder(deployment(2, 2, 1, 2, 1))
+				.editStatus()
+				.addNewCondition().withType("Progressing").withStatus("False").withReason("ProgressDeadlineExceeded").endCondition()
+				.endStatus()
+				.build();
+		assertThat(RolloutTracker.phase(stuck)).isEqualTo(RolloutPhase.FAILED);
+	}
+
+	@Test
+	void completesWhenWatchedDeploymentBecomesAvailable() throws Exception {
+		client.apps().deployments().inNamespace("default").resource(deployment(2, 1, 0, 0, 0)).create();
+
+		CompletableFuture<RolloutStatusResponse> rollout = tracker.await(app.getId(), Duration.ofSeconds(10));
+		assertThat(rollout).isNotDone();
+
+		client.apps().deployments().inNamespace("default").resource(deployment(2, 2, 2, 2, 2)).updateStatus();
+
+		RolloutStatusResponse status = rollout.get(10, TimeUnit.SECONDS);
+		assertThat(status.getPhase()).isEqualTo(RolloutPhase.COMPLETE);
+		assertThat(status.getAvailableReplicas()).isEqualTo(2);
+	}
+
+	@Test
+	void timesOutWithLastSeenState() throws Exception {
+		client.apps().deployments().inNamespace("default").resource(deployment(2, 2, 2, 2, 1)).create();
+
+		RolloutStatusResponse status = tracker.await(app.getId(), Duration.ofMillis(300)).get(5, TimeUnit.SECONDS);
+
+		assertThat(status.getPhase()).isEqualTo(RolloutPhase.TIMED_OUT);
+		assertThat(status.getUpdatedReplicas()).isEqualTo(2);
+		assertThat(status.getAvailableReplicas()).isEqualTo(1);
+	}
+
+	@Test
+	void reportsMissingDeployment() throws Exception {
+		RolloutStatusResponse status = tracker.await(app.getId(), Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+
+		assertThat(status.getPhase()).isEqualTo(RolloutPhase.NOT_FOUND);
+	}
+
+	@Test
+	void releasesWaiterWhenInitialReadFails() {
+		server.expect().get().withPath("/apis/apps/v1/namespaces/default/deployments/web")
+				.andReturn(403, "forbidden").once();
+
+		assertThatThrownBy(() -> tracker.await(app.getId(), Duration.ofSeconds(5)))
+				.isInstanceOf(KubernetesClientException.class);
+
+		assertThat(tracker.trackedCount()).isZero();
+	}
+
+	@Test
+	void initialStateIsReadLiveEvenWhenTheCacheHasTheDeployment() throws Exception {
+		// The cache watches a second apiserver still holding the pre-restart copy, standing in for an informer that lags
+		KubernetesMockServer lagging = new KubernetesMockServer(
+				new Context(), new MockWebServer(), new HashMap<>(), new KubernetesCrudDispatcher(), false);
+		lagging.init();
+		try (KubernetesClient laggingClient = lagging.createClient()) {
+			laggingClient.apps().deployments().inNamespace("default").resource(deployment(1, 1, 2, 2, 2)).create();
+			// A restart bumps the generation; the controller has not observed it yet
+			client.apps().deployments().inNamespace("default").resource(deployment(1, 1, 2, 2, 2)).create();
+			client.apps().deployments().inNamespace("default").withName("web").edit(d -> new DeploymentBuilder(d)
+					.editSpec().editOrNewTemplate().editOrNewMetadata().addToAnnotations("restartedAt", "now").endMetadata().endTemplate().endSpec()
+					.build());
+			ConsoleProperties properties = new ConsoleProperties();
+			DeploymentCache cache = new DeploymentCache(laggingClient, properties);
+			ClusterRegistry clusters = new ClusterRegistry("default", List.of(new ClusterRegistry.Cluster(
+					"default", client, cache, new ApiRateLimiter(0, 0), Duration.ofSeconds(5), false)),
+					Executors.newCachedThreadPool());
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (cache.synced("default").isEmpty() && System.nanoTime() < deadline) {
+				Thread.sleep(20);
+			}
+			RolloutTracker cached = new RolloutTracker(clusters, applicationRepository, new KubernetesApiCalls(new SimpleMeterRegistry()));
+			cached.start();
+
+			RolloutStatusResponse status = cached.await(app.getId(), Duration.ofMillis(300)).get(5, TimeUnit.SECONDS);
+
+			assertThat(status.getPhase()).isEqualTo(RolloutPhase.TIMED_OUT);
+			assertThat(status.getGeneration()).isEqualTo(2);
+			clusters.close();
+		} finally {
+			lagging.destroy();
+		}
+	}
+
+	private static Deployment deployment(long generation, long observed, int updated, int current, int available) {
+		return new DeploymentBuilder()
+				.withNewMetadata().withName("web").withNamespace("default").withGeneration(generation).addToLabels("app", "web").endMetadata()
+				.withNewSpec().withReplicas(2).endSpec()
+				.withNewStatus()
+				.withObservedGeneration(observed)
+				.withUpdatedReplicas(updated)
+				.withReplicas(current)
+				.withAvailableReplicas(available)
+				.endStatus()
+				.build();
+	}
+}
@@ -0,0 +1,142 @@
+package com.jonathan.spring_boot;
+
+import com.jonathan.spring_boot.ClusterRegistry.FanOut;
+import com.jonathan.spring_boot.SnapshotCache.Snapshot;
+import com.jonathan.spring_boot.req_res.ActiveDeploymentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotCacheTest {
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void coalescesConcurrentLoads() throws Exception {
+		SnapshotCache<String, String> cache = cache(Duration.ofMinutes(1));
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		Supplier<String> loader = () -> {
+			loads.incrementAndGet();
+			await(release);
+			return "v1";
+		};
+
+		List<Future<Snapshot<String>>> callers = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			callers.add(executor.submit(() -> cache.get("list", loader)));
+		}
+		Thread.sleep(200);
+		release.countDown();
+
+		for (Future<Snapshot<String>> caller : callers) {
+			assertThat(caller.get(5, TimeUnit.SECONDS).value()).isEqualTo("v1");
+		}
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	void servesStaleSnapshotWhileRefreshing() throws Exception {
+		SnapshotCache<String, String> cache = cache(Duration.ZERO);
+		cache.get("list", () -> "v1");
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch refreshed = new CountDownLatch(1);
+
+		Snapshot<String> served = cache.get("list", () -> {
+			await(release);
+			refreshed.countDown();
+			return "v2";
+		});
+
+		assertThat(served.value()).isEqualTo("v1");
+		assertThat(served.stale()).isTrue();
+		release.countDown();
+		assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+		Thread.sleep(50);
+		assertThat(cache.get("list", () -> "v3").value()).isEqualTo("v2");
+	}
+
+	@Test
+	void keepsLastSnapshotWhenRefreshFails() throws Exception {
+		SnapshotCache<String, String> cache = cache(Duration.ZERO);
+		cache.get("list", () -> "v1");
+
+		Snapshot<String> served = cache.get("list", () -> {
+			throw new IllegalStateException("apiserver down");
+		});
+		Thread.sleep(50);
+
+		assertThat(served.value()).isEqualTo("v1");
+		assertThat(cache.get("list", () -> {
+			throw new IllegalStateException("apiserver down");
+		}).value()).isEqualTo("v1");
+	}
+
+	@Test
+	void invalidatedSnapshotWaitsForRefreshButNotForever() {
+		SnapshotCache<String, String> cache = cache(Duration.ofMinutes(1));
+		cache.get("list", () -> "v1");
+
+		cache.invalidate();
+		Snapshot<String> refreshed = cache.get("list", () -> "v2");
+		assertThat(refreshed.value()).isEqualTo("v2");
+		assertThat(refreshed.stale()).isFalse();
+
+		cache.invalidate();
+		CountDownLatch release = new CountDownLatch(1);
+		Snapshot<String> slow = cache.get("list", () -> {
+			await(release);
+			return "v3";
+		});
+		release.countDown();
+		assertThat(slow.value()).isEqualTo("v2");
+		assertThat(slow.stale()).isTrue();
+	}
+
+	@Test
+	void keepsRowsOfClustersThatFailedTheRefresh() {
+		FanOut<ActiveDeploymentResponse> previous = new FanOut<>(List.of(row("api", "east"), row("web", "west")), Map.of());
+		FanOut<ActiveDeploymentResponse> loaded = new FanOut<>(List.of(row("api", "east")), Map.of("west", "timed out after 5000ms"));
+
+		FanOut<ActiveDeploymentResponse> merged = DeploymentSnapshots.keepFailedClusters(previous, loaded);
+
+		assertThat(merged.items()).extracting(ActiveDeploymentResponse::getName).containsExactly("api", "web");
+		assertThat(merged.failures()).containsKey("west");
+	}
+
+	private SnapshotCache<String, String> cache(Duration freshFor) {
+		return new SnapshotCache<>(freshFor, Duration.ofMinutes(5), Duration.ofMillis(100), executor, (previous, loaded) -> loaded);
+	}
+
+	private static ActiveDeploymentResponse row(String name, String cluster) {
+		ActiveDeploymentResponse row = new ActiveDeploymentResponse();
+		row.setName(name);
+		row.setCluster(cluster);
+		return row;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}